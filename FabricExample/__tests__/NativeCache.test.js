@@ -0,0 +1,53 @@
+/**
+ * @format
+ */
+
+import React from 'react';
+import ReactTestRenderer from 'react-test-renderer';
+import {NativeModules, Platform} from 'react-native';
+
+jest.mock('react-native-blob-util', () => ({
+  fs: {
+    dirs: {CacheDir: '/cache'},
+    stat: jest.fn(() => Promise.reject(new Error('ENOENT'))),
+    unlink: jest.fn(() => Promise.resolve()),
+  },
+  config: jest.fn(),
+}));
+
+test('source.cache is served by the native cache with the default props', async () => {
+  Platform.OS = 'android';
+  NativeModules.PdfManager = {
+    downloadFile: jest.fn(() => new Promise(() => {})),
+    cancelDownload: jest.fn(),
+    addListener: jest.fn(),
+    removeListeners: jest.fn(),
+  };
+  NativeModules.PdfCache = {
+    // left pending, the view keeps showing its progress
+    fetch: jest.fn(() => new Promise(() => {})),
+    cancelFetch: jest.fn(),
+  };
+  // PdfManager looks the native modules up when it is loaded
+  const Pdf = require('react-native-pdf').default;
+
+  const source = {uri: 'https://example.com/test.pdf', cache: true};
+  let renderer;
+  await ReactTestRenderer.act(() => {
+    renderer = ReactTestRenderer.create(<Pdf source={source} />);
+  });
+
+  expect(NativeModules.PdfCache.fetch).toHaveBeenCalledTimes(1);
+  const [, url, path, headers, expiration, trustAllCerts] =
+    NativeModules.PdfCache.fetch.mock.calls[0];
+  expect(url).toBe(source.uri);
+  expect(path).toMatch(/^\/cache\/[0-9a-f]{40}\.pdf$/);
+  expect(headers).toEqual({});
+  expect(expiration).toBe(0);
+  expect(trustAllCerts).toBe(true);
+  expect(NativeModules.PdfManager.downloadFile).not.toHaveBeenCalled();
+
+  await ReactTestRenderer.act(() => {
+    renderer.unmount();
+  });
+});
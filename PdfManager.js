@@ -8,7 +8,57 @@
 
 'use strict';
 
-const PdfManagerNative = require('react-native').NativeModules.PdfManager;
+const {NativeModules, NativeEventEmitter, Platform} = require('react-native');
+const PdfManagerNative = NativeModules.PdfManager;
+const PdfCacheNative = NativeModules.PdfCache;
+
+let downloadRequestId = 0;
+let thumbnailRequestId = 0;
+let searchRequestId = 0;
+let exportRequestId = 0;
+let nativeEmitter = null;
+
+const getEmitter = () => {
+    if (!nativeEmitter) {
+        nativeEmitter = new NativeEventEmitter(PdfManagerNative);
+    }
+    return nativeEmitter;
+};
+
+// The promise of a method the native module of this platform doesn't have. It rejects with
+// code 'unsupported' and has the cancel() method of the Android one.
+const unsupported = method => {
+    const error = new Error(`PdfManager.${method} is not available on ${Platform.OS}.`);
+    error.code = 'unsupported';
+    const promise = Promise.reject(error);
+    promise.cancel = () => {};
+    return promise;
+};
+
+// Runs a native download started with a fresh request id, forwarding its progress events
+// and the HTTP status of a failure. The returned promise has a cancel() method.
+const trackDownload = (start, cancel, onProgress) => {
+    const requestId = ++downloadRequestId;
+    const subscription = onProgress
+        ? getEmitter().addListener('PdfDownloadProgress', event => {
+            if (event.requestId === requestId) {
+                onProgress(event.received, event.total);
+            }
+        })
+        : null;
+
+    const promise = start(requestId)
+        .catch(error => {
+            const status = error.userInfo && error.userInfo.status;
+            if (status) {
+                error.status = status;
+            }
+            throw error;
+        })
+        .finally(() => subscription && subscription.remove());
+    promise.cancel = () => cancel(requestId);
+    return promise;
+};
 
 export default class PdfManager {
 
@@ -23,4 +73,225 @@ export default class PdfManager {
 
         return PdfManagerNative.loadFile(path, password);
     }
+
+    // Android only: outline entries [{id, title, pageIdx, childCount}] directly under the
+    // bookmark with the given id, or the top level when parentId is omitted.
+    static getTableOfContents(path, password, parentId) {
+        if (typeof path !== 'string') {
+            throw new TypeError('path must be a valid string.');
+        }
+        if (!PdfManagerNative || !PdfManagerNative.getTableOfContents) {
+            return unsupported('getTableOfContents');
+        }
+
+        return PdfManagerNative.getTableOfContents(path, password || "", parentId === undefined ? -1 : parentId);
+    }
+
+    // Android only: number of idle documents kept open for reuse by later loads of the same file.
+    static setDocumentCacheSize(maxDocuments) {
+        if (PdfManagerNative && PdfManagerNative.setDocumentCacheSize) {
+            PdfManagerNative.setDocumentCacheSize(maxDocuments);
+        }
+    }
+
+    // Android only: number of released Pdf views kept for reuse by the next Pdf mounted, e.g.
+    // in carousels or lists of pdf cards. 0 (the default) turns pooling off.
+    static setViewPoolSize(maxViews) {
+        if (PdfManagerNative && PdfManagerNative.setViewPoolSize) {
+            PdfManagerNative.setViewPoolSize(maxViews);
+        }
+    }
+
+    // Android only: whether downloadFile is available in this build.
+    static canDownloadFile() {
+        return !!(PdfManagerNative && PdfManagerNative.downloadFile);
+    }
+
+    // Android only: downloads url to path with resumable range requests. Returns a promise
+    // for the path with a cancel() method; a cancelled download resumes on the next call.
+    // trustAllCerts skips certificate checks, as the prop of the same name does.
+    static downloadFile(url, path, headers, onProgress, trustAllCerts) {
+        return trackDownload(
+            requestId => PdfManagerNative.downloadFile(requestId, url, path, headers || {}, !!trustAllCerts),
+            requestId => PdfManagerNative.cancelDownload(requestId),
+            onProgress);
+    }
+
+    // Android only: whether the native download cache is available in this build.
+    static canUseCache() {
+        return !!PdfCacheNative;
+    }
+
+    // Android only: resolves {path, status} for url cached at path, where status is 'hit',
+    // 'revalidated' (a stale file confirmed by the server) or 'downloaded'. expiration is
+    // in seconds, 0 never expires. The promise has a cancel() method.
+    static fetchCached(url, path, headers, expiration, onProgress, trustAllCerts) {
+        return trackDownload(
+            requestId => PdfCacheNative.fetch(requestId, url, path, headers || {}, expiration || 0, !!trustAllCerts),
+            requestId => PdfCacheNative.cancelFetch(requestId),
+            onProgress);
+    }
+
+    // Android only: byte quota for cached downloads, least recently used files go first.
+    static setCacheMaxSize(maxBytes) {
+        if (PdfCacheNative) {
+            PdfCacheNative.setMaxSize(maxBytes);
+        }
+    }
+
+    // Android only: {hits, misses, revalidations, bytesDownloaded, evictions, size, maxSize, count}
+    static getCacheStats() {
+        return PdfCacheNative ? PdfCacheNative.getStats() : Promise.resolve(null);
+    }
+
+    // Android only: streams path through the transformer registered with
+    // ViewFileTransformer.setTransformer into path + '.view'. Resolves with that path, or
+    // null when no native transformer is available.
+    static transformToViewFile(path) {
+        if (!PdfManagerNative || !PdfManagerNative.transformToViewFile) {
+            return Promise.resolve(null);
+        }
+        return PdfManagerNative.transformToViewFile(path)
+            .catch(error => {
+                if (error.code === 'E_NO_TRANSFORMER') {
+                    return null;
+                }
+                throw error;
+            });
+    }
+
+    // Android only: deletes a .view file created by transformToViewFile.
+    static releaseViewFile(path) {
+        if (PdfManagerNative && PdfManagerNative.releaseViewFile) {
+            PdfManagerNative.releaseViewFile(path);
+        }
+    }
+
+    // Android only: renders the given 1-based pages no wider than maxWidth and resolves with
+    // file:// uris of 'webp' (default) or 'png' thumbnails, null for pages out of range.
+    // Thumbnails are cached on disk. The promise has a cancel() method, a cancelled batch
+    // rejects with code 'cancelled'.
+    static renderThumbnails(path, pages, maxWidth, format, password) {
+        if (typeof path !== 'string') {
+            throw new TypeError('path must be a valid string.');
+        }
+        if (!PdfManagerNative || !PdfManagerNative.renderThumbnails) {
+            return unsupported('renderThumbnails');
+        }
+
+        const requestId = ++thumbnailRequestId;
+        const promise = PdfManagerNative.renderThumbnails(requestId, path, password || "", pages, Math.round(maxWidth), format || 'webp');
+        promise.cancel = () => PdfManagerNative.cancelThumbnails(requestId);
+        return promise;
+    }
+
+    // Android only: renders the given 1-based pages at dpi into 'jpeg' (default) or 'png'
+    // files named page-N in outDir and resolves with [{page, uri, width, height}], null for
+    // pages out of range. onProgress(page, completed, total) is called as each file is
+    // written. options: {concurrency, quality, password}. The promise has a cancel()
+    // method, a cancelled export rejects with code 'cancelled'.
+    static exportPages(path, pages, dpi, format, outDir, options, onProgress) {
+        if (typeof path !== 'string') {
+            throw new TypeError('path must be a valid string.');
+        }
+        if (typeof outDir !== 'string') {
+            throw new TypeError('outDir must be a valid string.');
+        }
+        if (!PdfManagerNative || !PdfManagerNative.exportPages) {
+            return unsupported('exportPages');
+        }
+
+        const {concurrency = 2, quality = 90, password = ""} = options || {};
+        const requestId = ++exportRequestId;
+        const subscription = onProgress
+            ? getEmitter().addListener('PdfExportProgress', event => {
+                if (event.requestId === requestId) {
+                    const {page, uri, width, height} = event;
+                    onProgress({page, uri, width, height}, event.completed, event.total);
+                }
+            })
+            : null;
+
+        const promise = PdfManagerNative.exportPages(requestId, path, password, pages, Math.round(dpi),
+            format || 'jpeg', outDir, {concurrency: Math.round(concurrency), quality: Math.round(quality)})
+            .finally(() => subscription && subscription.remove());
+        promise.cancel = () => PdfManagerNative.cancelExport(requestId);
+        return promise;
+    }
+
+    // Android only: resolves with the text of the given 1-based pages, null for pages out
+    // of range. Text is cached per document and shared with search and text selection.
+    static getPageText(path, pages, password) {
+        if (typeof path !== 'string') {
+            throw new TypeError('path must be a valid string.');
+        }
+        if (!PdfManagerNative || !PdfManagerNative.getPageText) {
+            return unsupported('getPageText');
+        }
+
+        return PdfManagerNative.getPageText(path, password || "", pages);
+    }
+
+    // Android only: turns render pipeline metrics (and their android.os.Trace sections) on or off.
+    static setMetricsEnabled(enabled) {
+        if (PdfManagerNative && PdfManagerNative.setMetricsEnabled) {
+            PdfManagerNative.setMetricsEnabled(!!enabled);
+        }
+    }
+
+    // Android only: {enabled, histograms: {name: {count, meanMs, p50Ms, p90Ms, p99Ms, maxMs}},
+    // counters: {name: value}, gauges: {name: bytes}}
+    static getMetrics() {
+        return PdfManagerNative && PdfManagerNative.getMetrics ? PdfManagerNative.getMetrics() : Promise.resolve(null);
+    }
+
+    static resetMetrics() {
+        if (PdfManagerNative && PdfManagerNative.resetMetrics) {
+            PdfManagerNative.resetMetrics();
+        }
+    }
+
+    // Android only: calls listener with a metrics snapshot at most every interval milliseconds,
+    // skipping intervals where nothing was recorded. Returns a function that stops it. On
+    // other platforms the listener is never called.
+    static subscribeToMetrics(interval, listener) {
+        if (!PdfManagerNative || !PdfManagerNative.setMetricsInterval) {
+            return () => {};
+        }
+        const subscription = getEmitter().addListener('PdfMetrics', listener);
+        PdfManagerNative.setMetricsInterval(Math.round(interval));
+        return () => {
+            subscription.remove();
+            PdfManagerNative.setMetricsInterval(0);
+        };
+    }
+
+    // Android only: searches the text of every page for query and calls onResults(page, hits)
+    // as pages are done, in roughly page order. Each hit is {rects, snippet} with rects
+    // [{left, top, right, bottom}] as fractions of the page, ready for the highlights prop.
+    // options: {caseSensitive, maxResults, password}. Resolves with the number of hits; the
+    // promise has a cancel() method, a cancelled search rejects with code 'cancelled'.
+    static search(path, query, options, onResults) {
+        if (typeof path !== 'string') {
+            throw new TypeError('path must be a valid string.');
+        }
+        if (!PdfManagerNative || !PdfManagerNative.search) {
+            return unsupported('search');
+        }
+
+        const {caseSensitive = false, maxResults = 0, password = ""} = options || {};
+        const requestId = ++searchRequestId;
+        const subscription = onResults
+            ? getEmitter().addListener('PdfSearchResults', event => {
+                if (event.requestId === requestId) {
+                    onResults(event.page, event.hits);
+                }
+            })
+            : null;
+
+        const promise = PdfManagerNative.search(requestId, path, password, query, {caseSensitive, maxResults})
+            .finally(() => subscription && subscription.remove());
+        promise.cancel = () => PdfManagerNative.cancelSearch(requestId);
+        return promise;
+    }
 }
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mapping every view page of a document to its document page and back, as one pass of
+ * the prefetcher or highlighter over a long document does, against the int[] lookup the
+ * components used to keep each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PageOrderBenchmark {
+
+    @Param({"all", "reversed", "range"})
+    public String order;
+
+    @Param({"5000"})
+    public int pageCount;
+
+    private PageOrder pageOrder;
+    private int[] documentPages;
+
+    @Setup
+    public void setUp() {
+        switch (order) {
+            case "reversed":
+                pageOrder = PageOrder.reversed(pageCount);
+                break;
+            case "range":
+                pageOrder = PageOrder.range(pageCount / 4, pageCount / 2);
+                break;
+            default:
+                pageOrder = PageOrder.ALL;
+                break;
+        }
+        documentPages = pageOrder.getDocumentPages();
+    }
+
+    @Benchmark
+    public long documentPages() {
+        long sum = 0;
+        for (int page = 0; page < pageCount; page++) {
+            sum += pageOrder.getDocumentPage(page);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long documentPagesFromArray() {
+        long sum = 0;
+        for (int page = 0; page < pageCount; page++) {
+            sum += documentPages != null && page < documentPages.length ? documentPages[page] : page;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long viewPages() {
+        long sum = 0;
+        for (int page = 0; page < pageCount; page++) {
+            sum += pageOrder.getViewPage(page);
+        }
+        return sum;
+    }
+
+    // what drawPdf hands to Configurator.pages
+    @Benchmark
+    public int[] configuratorPages() {
+        return pageOrder.getDocumentPages();
+    }
+}
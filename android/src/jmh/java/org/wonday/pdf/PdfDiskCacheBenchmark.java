@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The download cache's bookkeeping per open of a cached url: the lookup, and the hit that
+ * rewrites the json index; and a download that pushes the cache over its quota, which
+ * evicts the least recently used file.
+ *
+ * PdfDiskCache is a singleton, every parameter combination runs in its own fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PdfDiskCacheBenchmark {
+
+    private static final int FILE_SIZE = 1024;
+
+    @Param({"16", "256"})
+    public int entries;
+
+    private File directory;
+    private PdfDiskCache cache;
+    private String[] paths;
+    private int next;
+    private long downloads;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("rnpdf-bench").toFile();
+        cache = PdfDiskCache.get(PdfDiskCacheTest.createContext(directory));
+        cache.setMaxBytes((long) entries * FILE_SIZE);
+        paths = new String[entries];
+        for (int i = 0; i < entries; i++) {
+            paths[i] = PdfDiskCacheTest.createFile(directory, i + ".pdf", FILE_SIZE).getPath();
+            cache.recordDownload(paths[i], getUrl(i), null, null);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private static String getUrl(int i) {
+        return "https://example.com/" + i + ".pdf";
+    }
+
+    @Benchmark
+    public PdfDiskCache.Entry lookup() {
+        next = (next + 1) % entries;
+        return cache.lookup(paths[next], getUrl(next));
+    }
+
+    @Benchmark
+    public void hit() {
+        next = (next + 1) % entries;
+        PdfDiskCache.Entry entry = cache.lookup(paths[next], getUrl(next));
+        if (entry != null) {
+            cache.recordHit(entry, false, null, null);
+        }
+    }
+
+    // the cache is full, every download evicts the least recently used file
+    @Benchmark
+    public void downloadEvictingOne() throws IOException {
+        String name = "new-" + downloads++ + ".pdf";
+        String path = PdfDiskCacheTest.createFile(directory, name, FILE_SIZE).getPath();
+        cache.recordDownload(path, "https://example.com/" + name, null, null);
+    }
+}
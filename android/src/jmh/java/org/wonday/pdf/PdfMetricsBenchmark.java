@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the PdfMetrics calls left in hot paths (onDraw, the bitmap pool), disabled
+ * and enabled. Trace sections are android.jar stubs here, so only our own bookkeeping
+ * is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PdfMetricsBenchmark {
+
+    @Param({"false", "true"})
+    public boolean enabled;
+
+    private final PdfMetrics.Histogram histogram = new PdfMetrics.Histogram();
+    private double sample;
+
+    @Setup
+    public void setUp() {
+        PdfMetrics.setEnabled(enabled);
+    }
+
+    @TearDown
+    public void tearDown() {
+        PdfMetrics.setEnabled(false);
+        PdfMetrics.reset();
+    }
+
+    @Benchmark
+    public void increment() {
+        PdfMetrics.increment("pool.hits");
+    }
+
+    @Benchmark
+    public void section() {
+        PdfMetrics.endSection("draw", PdfMetrics.beginSection("draw"));
+    }
+
+    @Benchmark
+    public void histogramRecord() {
+        sample = (sample + 0.37) % 300;
+        histogram.record(sample);
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-page work of a search and of a text selection drag on a dense page: matching a
+ * query (cold includes collapsing and folding the page text once), turning a hit into
+ * line rectangles and hit-testing a finger position.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PdfTextIndexBenchmark {
+
+    private static final String[] WORDS = {
+            "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "do",
+            "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua",
+    };
+
+    // characters per page, a dense page of body text is around 3000-5000
+    @Param({"4000"})
+    public int length;
+
+    private String text;
+    private PdfTextIndex.Page page;
+    private String query;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(length + 16);
+        int column = 0;
+        while (builder.length() < length) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            builder.append(random.nextInt(8) == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+            column += word.length() + 1;
+            if (column > 60) {
+                builder.append('\n');
+                column = 0;
+            } else {
+                builder.append(' ');
+            }
+        }
+        text = builder.toString();
+        page = PdfTextIndexTest.createPage(text);
+        query = PdfTextIndex.normalizeQuery("Dolore  magna", false);
+        page.find(query, false, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<int[]> findCold() {
+        return new PdfTextIndex.Page(text, page.boxes).find(query, false, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<int[]> find() {
+        return page.find(query, false, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public float[] rectsOfAParagraph() {
+        return page.rects(100, 400);
+    }
+
+    @Benchmark
+    public int findChar() {
+        return page.findChar(0.5f, 0.5f, 0.02f);
+    }
+
+    @Benchmark
+    public String normalizeQuery() {
+        return PdfTextIndex.normalizeQuery("  The Quick   Brown Fox ", false);
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf.events;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import android.view.View;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.uimanager.events.EventDispatcher;
+
+import org.mockito.MockedStatic;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+
+/**
+ * One 16 ms frame of a pinch-zoom fling: eventsPerFrame scroll and scale callbacks, with
+ * the main looper running between them, through the emitter into a dispatcher that builds
+ * the payload of everything it receives, as the bridge does.
+ *
+ * Payload maps are JavaOnlyMaps behind a static mock of Arguments, whose dispatch is part
+ * of every payload, so compare the intervals with each other rather than reading absolute
+ * numbers. The dispatched counter totals what reached the dispatcher per iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PdfEventEmitterBenchmark {
+
+    private static final int FRAME_MS = 16;
+
+    // 0 sends every value, 16 is the default
+    @Param({"0", "16"})
+    public int intervalMs;
+
+    @Param({"8"})
+    public int eventsPerFrame;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long dispatched;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            dispatched = 0;
+        }
+    }
+
+    private MockedStatic<Arguments> arguments;
+    private ManualScheduler scheduler;
+    private PdfEventEmitter emitter;
+    private Blackhole blackhole;
+    private Counters counters;
+
+    @Setup
+    public void setUp() {
+        arguments = mockStatic(Arguments.class);
+        arguments.when(Arguments::createMap).thenAnswer(invocation -> new JavaOnlyMap());
+
+        final EventDispatcher dispatcher = (EventDispatcher) Proxy.newProxyInstance(
+                EventDispatcher.class.getClassLoader(), new Class<?>[] {EventDispatcher.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("dispatchEvent")) {
+                        counters.dispatched++;
+                        blackhole.consume(((TopChangeEvent) args[0]).getEventData());
+                    }
+                    return null;
+                });
+        scheduler = new ManualScheduler(1000);
+        emitter = new PdfEventEmitter(mock(View.class), scheduler) {
+            @Override
+            EventDispatcher getDispatcher() {
+                return dispatcher;
+            }
+        };
+        emitter.setIntervalMs(intervalMs);
+    }
+
+    @TearDown
+    public void tearDown() {
+        arguments.close();
+    }
+
+    @Benchmark
+    public void frame(Counters counters, Blackhole blackhole) {
+        this.counters = counters;
+        this.blackhole = blackhole;
+        long start = scheduler.uptimeMillis();
+        for (int i = 0; i < eventsPerFrame; i++) {
+            float progress = (float) i / eventsPerFrame;
+            emitter.dispatchThrottled(new PageScrolledEvent(1, 7, 3, progress));
+            emitter.dispatchThrottled(new ScaleChangedEvent(1, 7, 1 + progress));
+            // the looper handles what's due before the next input event
+            scheduler.advanceTo(start + (i + 1) * FRAME_MS / eventsPerFrame);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.IOException;
+
+import android.content.Context;
+
+import com.github.barteksc.pdfviewer.source.DocumentSource;
+
+import io.legere.pdfiumandroid.PdfDocument;
+import io.legere.pdfiumandroid.PdfiumCore;
+
+/**
+ * Hands PDFView the document PdfDocumentOpener opened, so the page count drawPdf needs
+ * before the load comes from the same parse as the pages. Files and content uris were
+ * opened through a file descriptor, PDFView's own sources would copy a stream into a
+ * byte array on the heap first.
+ *
+ * PDFView owns the document once it took it and closes it on recycle. A document it
+ * never took, because the load was replaced before decoding started, is closed by release.
+ */
+class OpenedDocumentSource implements DocumentSource {
+
+    private final String path;
+    private PdfDocument document;
+
+    OpenedDocumentSource(String path, PdfDocument document) {
+        this.path = path;
+        this.document = document;
+    }
+
+    @Override
+    public PdfDocument createDocument(Context context, PdfiumCore core, String password) {
+        PdfDocument taken = take();
+        if (taken != null) {
+            return taken;
+        }
+        // asked again after release, only a load that is being thrown away gets here
+        try {
+            return PdfiumHolder.openDocument(context, path, password);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    private synchronized PdfDocument take() {
+        PdfDocument taken = document;
+        document = null;
+        return taken;
+    }
+
+    synchronized void release() {
+        if (document != null) {
+            document.close();
+            document = null;
+        }
+    }
+}
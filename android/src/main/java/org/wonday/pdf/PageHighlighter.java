@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.util.SparseArray;
+
+import com.github.barteksc.pdfviewer.PDFView;
+import com.github.barteksc.pdfviewer.listener.OnDrawListener;
+
+/**
+ * Draws highlight rectangles (search hits) and the text selection over the pages of a
+ * PdfView. Rectangles are fractions of the page, the same unit PdfTextSearch reports,
+ * keyed by document page.
+ */
+class PageHighlighter implements OnDrawListener {
+
+    private final PDFView view;
+    private final PageLayout layout;
+    private final Paint paint = new Paint();
+    private final Paint selectionPaint = new Paint();
+
+    // document page -> left, top, right, bottom per rectangle
+    private SparseArray<float[]> highlights = new SparseArray<>();
+    private PageOrder order = PageOrder.ALL;
+
+    private int selectionPage = -1;
+    private float[] selectionRects;
+
+    PageHighlighter(PDFView view, PageLayout layout) {
+        this.view = view;
+        this.layout = layout;
+        paint.setStyle(Paint.Style.FILL);
+        paint.setColor(0x66FFD600);
+        selectionPaint.setStyle(Paint.Style.FILL);
+        selectionPaint.setColor(0x553D8BFF);
+    }
+
+    void setHighlights(SparseArray<float[]> highlights) {
+        this.highlights = highlights;
+        view.invalidate();
+    }
+
+    // document page of the selection, -1 for none
+    void setSelection(int documentPage, float[] rects) {
+        this.selectionPage = documentPage;
+        this.selectionRects = rects;
+        view.invalidate();
+    }
+
+    void setPageOrder(PageOrder order) {
+        this.order = order;
+    }
+
+    @Override
+    public void onLayerDrawn(Canvas canvas, float pageWidth, float pageHeight, int displayedPage) {
+        int documentPage = order.getDocumentPage(displayedPage);
+        float[] rects = highlights.get(documentPage);
+        boolean selected = documentPage == selectionPage && selectionRects != null;
+        if (rects == null && !selected) {
+            return;
+        }
+
+        // PDFView translates the canvas along the scroll axis only, pages narrower than the
+        // widest one are centered across it
+        layout.refresh();
+        boolean vertical = view.isSwipeVertical();
+        float cross = (layout.getMaxCrossSize() * view.getZoom() - (vertical ? pageWidth : pageHeight)) / 2;
+        float dx = vertical ? cross : 0;
+        float dy = vertical ? 0 : cross;
+        if (rects != null) {
+            drawRects(canvas, rects, dx, dy, pageWidth, pageHeight, paint);
+        }
+        if (selected) {
+            drawRects(canvas, selectionRects, dx, dy, pageWidth, pageHeight, selectionPaint);
+        }
+    }
+
+    private static void drawRects(Canvas canvas, float[] rects, float dx, float dy, float pageWidth, float pageHeight,
+                                  Paint paint) {
+        for (int i = 0; i + 3 < rects.length; i += 4) {
+            canvas.drawRect(dx + rects[i] * pageWidth, dy + rects[i + 1] * pageHeight,
+                    dx + rects[i + 2] * pageWidth, dy + rects[i + 3] * pageHeight, paint);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.Arrays;
+
+import android.graphics.RectF;
+import android.util.SizeF;
+
+import com.github.barteksc.pdfviewer.PDFView;
+
+/**
+ * Mirrors PdfFile's page layout for fixed spacing from PDFView's public page sizes, which
+ * PDFView keeps to itself: where every page (view index) starts along the scroll axis and
+ * how it is centered across it, in unzoomed pixels.
+ */
+class PageLayout {
+
+    private final PDFView view;
+
+    private float[] offsets;
+    private SizeF firstPageSize;
+    private float maxCrossSize;
+
+    PageLayout(PDFView view) {
+        this.view = view;
+    }
+
+    void invalidate() {
+        offsets = null;
+    }
+
+    /**
+     * Rebuilds the layout if the document or the page sizes (rotation, resize) changed.
+     *
+     * @return true if the layout was rebuilt
+     */
+    boolean refresh() {
+        SizeF size = view.getPageSize(0);
+        int pageCount = view.getPageCount();
+        if (offsets != null && offsets.length == pageCount && size.equals(firstPageSize)) {
+            return false;
+        }
+
+        boolean vertical = view.isSwipeVertical();
+        float spacing = view.getSpacingPx();
+        float offset = 0;
+        maxCrossSize = 0;
+        offsets = new float[pageCount];
+        for (int i = 0; i < pageCount; i++) {
+            SizeF pageSize = view.getPageSize(i);
+            offsets[i] = offset;
+            offset += (vertical ? pageSize.getHeight() : pageSize.getWidth()) + spacing;
+            maxCrossSize = Math.max(maxCrossSize, vertical ? pageSize.getWidth() : pageSize.getHeight());
+        }
+        firstPageSize = size;
+        return true;
+    }
+
+    // whether the document is laid out at all, pages have no size before the first load
+    boolean isReady() {
+        if (view.isRecycled() || view.getPageCount() == 0 || view.isAutoSpacingEnabled()) {
+            return false;
+        }
+        SizeF size = view.getPageSize(0);
+        return size.getWidth() > 0 && size.getHeight() > 0;
+    }
+
+    int getPageCount() {
+        return offsets != null ? offsets.length : 0;
+    }
+
+    float getOffset(int page) {
+        return offsets[page];
+    }
+
+    float getMaxCrossSize() {
+        return maxCrossSize;
+    }
+
+    // page at an unzoomed position along the scroll axis
+    int findPage(float position) {
+        int index = Arrays.binarySearch(offsets, position);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return Math.max(0, Math.min(index, offsets.length - 1));
+    }
+
+    // where the page is on screen at the current zoom and scroll offset
+    void getPageBounds(int page, RectF bounds) {
+        boolean vertical = view.isSwipeVertical();
+        float zoom = view.getZoom();
+        float mainOffset = vertical ? view.getCurrentYOffset() : view.getCurrentXOffset();
+        float crossOffset = vertical ? view.getCurrentXOffset() : view.getCurrentYOffset();
+        SizeF size = view.getPageSize(page);
+        float start = offsets[page] * zoom + mainOffset;
+        float width = size.getWidth() * zoom;
+        float height = size.getHeight() * zoom;
+        if (vertical) {
+            float left = crossOffset + (maxCrossSize - size.getWidth()) * zoom / 2;
+            bounds.set(left, start, left + width, start + height);
+        } else {
+            float top = crossOffset + (maxCrossSize - size.getHeight()) * zoom / 2;
+            bounds.set(start, top, start + width, top + height);
+        }
+    }
+
+    // page under a point on screen, or the one closest along the scroll axis
+    int findPageAt(float x, float y) {
+        boolean vertical = view.isSwipeVertical();
+        float zoom = view.getZoom();
+        float mainOffset = vertical ? view.getCurrentYOffset() : view.getCurrentXOffset();
+        return findPage(((vertical ? y : x) - mainOffset) / zoom);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+/**
+ * Which document page every page of a PdfView (view index) shows: all of them in order,
+ * or a run of them (pageRange, singlePage), either way optionally reversed (enableRTL).
+ * PDFView gets the same order through Configurator.pages, and only lays out and renders
+ * those pages; previews, highlights and text selection map through this instead of
+ * keeping their own copy.
+ *
+ * Mapping is arithmetic, nothing is allocated per page until getDocumentPages.
+ */
+final class PageOrder {
+
+    static final PageOrder ALL = new PageOrder(0, -1, false);
+
+    private final int first;
+    // -1 for every page of the document
+    private final int count;
+    private final boolean reversed;
+
+    private PageOrder(int first, int count, boolean reversed) {
+        this.first = first;
+        this.count = count;
+        this.reversed = reversed;
+    }
+
+    static PageOrder reversed(int pageCount) {
+        return new PageOrder(0, pageCount, true);
+    }
+
+    // count document pages from first, 0-based
+    static PageOrder range(int first, int count) {
+        return new PageOrder(first, count, false);
+    }
+
+    static PageOrder range(int first, int count, boolean reversed) {
+        return new PageOrder(first, count, reversed);
+    }
+
+    boolean isAll() {
+        return count < 0;
+    }
+
+    /**
+     * @return the pages for Configurator.pages, null when PDFView shows the whole document
+     */
+    int[] getDocumentPages() {
+        if (count < 0) {
+            return null;
+        }
+        int[] pages = new int[count];
+        for (int i = 0; i < count; i++) {
+            pages[i] = getDocumentPage(i);
+        }
+        return pages;
+    }
+
+    // pages outside of the order map to themselves, like PDFView without Configurator.pages
+    int getDocumentPage(int viewPage) {
+        if (count < 0 || viewPage < 0 || viewPage >= count) {
+            return viewPage;
+        }
+        return reversed ? first + count - 1 - viewPage : first + viewPage;
+    }
+
+    // -1 when the document page isn't shown
+    int getViewPage(int documentPage) {
+        if (count < 0) {
+            return documentPage;
+        }
+        int offset = documentPage - first;
+        if (offset < 0 || offset >= count) {
+            return -1;
+        }
+        return reversed ? count - 1 - offset : offset;
+    }
+
+    // view page of documentPage, or of the closest document page shown if it isn't
+    int getNearestViewPage(int documentPage) {
+        if (count < 0) {
+            return Math.max(documentPage, 0);
+        }
+        return getViewPage(Math.max(first, Math.min(documentPage, first + count - 1)));
+    }
+}
@@ -0,0 +1,398 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.util.Log;
+import android.util.SizeF;
+import android.util.SparseArray;
+
+import io.legere.pdfiumandroid.PdfDocument;
+import io.legere.pdfiumandroid.PdfPage;
+
+import static java.lang.String.format;
+
+/**
+ * Low resolution previews of the pages around the viewport, rendered in the direction the
+ * user is scrolling. PDFView only renders pages once they are (almost) visible, so a fast
+ * fling shows blank pages; PagePreviewDrawable draws these previews underneath, where the
+ * blank page would be, until PDFView's own parts cover them.
+ *
+ * With a preview quality other than "none" the visible pages get the same treatment while
+ * moving (progressive rendering): a cheap pass shows up right away, and PDFView's sharp
+ * parts, which it only renders once a scroll, fling or pinch has ended, cover it after.
+ *
+ * All previews share the preview part of PdfMemoryManager's budget. When it is exhausted
+ * the farthest pages are given up first, so prefetch shrinks back towards the viewport
+ * instead of failing.
+ */
+public class PagePrefetcher {
+
+    private static final String TAG = "PagePrefetcher";
+
+    public static final float DEFAULT_RESOLUTION = 0.3f;
+
+    private static final ExecutorService renderExecutor = Executors.newSingleThreadExecutor();
+
+    private static final AtomicLong usedBytes = new AtomicLong();
+
+    private final PdfView view;
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final RectF pageRect = new RectF();
+
+    private int ahead = 0;
+    private int behind = 0;
+    private float resolution = DEFAULT_RESOLUTION;
+
+    // preview quality tier, see setPreviewQuality
+    private boolean progressive = false;
+    private float qualityScale = 0;
+    private Bitmap.Config bitmapConfig = Bitmap.Config.ARGB_8888;
+    private boolean qualityAnnotations = true;
+    private boolean renderAnnotations = true;
+
+    // document and layout, reset on every load
+    private String path;
+    private SharedDocument document;
+    private PageOrder order = PageOrder.ALL;
+    private volatile int generation = 0;
+    private final PageLayout layout;
+
+    // main thread only
+    private final SparseArray<Bitmap> previews = new SparseArray<>();
+    private int[] wanted = new int[0];
+    private int lastFirstPage = -1;
+    private int lastDirection = 0;
+    private float lastMainOffset = 0;
+
+    // pages (view indexes) still to render, highest priority first, guarded by itself
+    private final ArrayDeque<int[]> pending = new ArrayDeque<>();
+    // what the pending pages are rendered with, guarded by pending
+    private Batch batch;
+    private boolean workerRunning = false;
+
+    // Set by schedule() together with the pages it queues.
+    private static final class Batch {
+        final String path;
+        final SharedDocument document;
+        final int generation;
+        final Bitmap.Config config;
+        final boolean annotations;
+
+        Batch(String path, SharedDocument document, int generation, Bitmap.Config config, boolean annotations) {
+            this.path = path;
+            this.document = document;
+            this.generation = generation;
+            this.config = config;
+            this.annotations = annotations;
+        }
+    }
+
+    public PagePrefetcher(PdfView view) {
+        this.view = view;
+        this.layout = new PageLayout(view);
+    }
+
+    public void setPolicy(int ahead, int behind, float resolution) {
+        this.ahead = Math.max(ahead, 0);
+        this.behind = Math.max(behind, 0);
+        this.resolution = resolution > 0 ? Math.min(resolution, 1f) : DEFAULT_RESOLUTION;
+        // previews rendered so far don't match the new settings
+        clear();
+    }
+
+    /**
+     * "none" (default): only prefetched pages get previews, at the prefetch resolution.
+     * "low": 15% scale, RGB_565, no annotations. "medium": 25%, RGB_565. "high": 50%,
+     * ARGB_8888. Any tier other than "none" also turns on previews of the visible pages.
+     */
+    public void setPreviewQuality(String quality) {
+        progressive = true;
+        if ("low".equals(quality)) {
+            setTier(0.15f, Bitmap.Config.RGB_565, false);
+        } else if ("medium".equals(quality)) {
+            setTier(0.25f, Bitmap.Config.RGB_565, true);
+        } else if ("high".equals(quality)) {
+            setTier(0.5f, Bitmap.Config.ARGB_8888, true);
+        } else {
+            progressive = false;
+            setTier(0, Bitmap.Config.ARGB_8888, true);
+        }
+        clear();
+    }
+
+    private void setTier(float scale, Bitmap.Config config, boolean annotations) {
+        this.qualityScale = scale;
+        this.bitmapConfig = config;
+        this.qualityAnnotations = annotations;
+    }
+
+    // follows the enableAnnotationRendering prop
+    public void setRenderAnnotations(boolean renderAnnotations) {
+        if (this.renderAnnotations != renderAnnotations) {
+            this.renderAnnotations = renderAnnotations;
+            clear();
+        }
+    }
+
+    public boolean isEnabled() {
+        return progressive || ahead > 0 || behind > 0;
+    }
+
+    public void reset(String path, SharedDocument document, PageOrder order) {
+        clear();
+        this.path = path;
+        this.document = document;
+        this.order = order;
+    }
+
+    public void clear() {
+        generation++;
+        synchronized (pending) {
+            pending.clear();
+        }
+        for (int i = 0; i < previews.size(); i++) {
+            recycle(previews.valueAt(i));
+        }
+        previews.clear();
+        layout.invalidate();
+        wanted = new int[0];
+        lastFirstPage = -1;
+    }
+
+    /**
+     * Called from the background drawable, before PDFView draws its own parts.
+     */
+    public void draw(Canvas canvas) {
+        if (!isEnabled() || path == null || !layout.isReady()) {
+            return;
+        }
+        if (layout.refresh()) {
+            // page sizes changed (rotation, resize), the previews are the wrong shape now
+            for (int i = 0; i < previews.size(); i++) {
+                recycle(previews.valueAt(i));
+            }
+            previews.clear();
+            lastFirstPage = -1;
+        }
+
+        boolean vertical = view.isSwipeVertical();
+        float mainOffset = vertical ? view.getCurrentYOffset() : view.getCurrentXOffset();
+        float viewLength = vertical ? view.getHeight() : view.getWidth();
+
+        int pageCount = layout.getPageCount();
+        int first = layout.findPage(-mainOffset / view.getZoom());
+        int last = first;
+        for (int i = first; i < pageCount; i++) {
+            layout.getPageBounds(i, pageRect);
+            if ((vertical ? pageRect.top : pageRect.left) > viewLength) {
+                break;
+            }
+            last = i;
+            Bitmap preview = previews.get(i);
+            if (preview != null) {
+                canvas.drawBitmap(preview, null, pageRect, paint);
+            }
+        }
+
+        // scrolling towards higher pages moves the offset further below zero
+        int direction = mainOffset < lastMainOffset ? 1 : mainOffset > lastMainOffset ? -1 : lastDirection;
+        lastMainOffset = mainOffset;
+        if (first != lastFirstPage || direction != lastDirection) {
+            lastFirstPage = first;
+            lastDirection = direction;
+            schedule(first, last, direction);
+        }
+    }
+
+    void schedule(int first, int last, int direction) {
+        int pageCount = layout.getPageCount();
+        boolean forward = direction >= 0;
+        int afterLimit = forward ? ahead : behind;
+        int beforeLimit = forward ? behind : ahead;
+
+        // visible pages, then outwards with the side we're moving towards first
+        List<Integer> priorities = new ArrayList<>();
+        for (int i = 0; i <= last - first; i++) {
+            priorities.add(forward ? first + i : last - i);
+        }
+        for (int i = 1; i <= Math.max(afterLimit, beforeLimit); i++) {
+            boolean after = i <= afterLimit && last + i < pageCount;
+            boolean before = i <= beforeLimit && first - i >= 0;
+            if (forward && after) {
+                priorities.add(last + i);
+            }
+            if (before) {
+                priorities.add(first - i);
+            }
+            if (!forward && after) {
+                priorities.add(last + i);
+            }
+        }
+
+        wanted = new int[priorities.size()];
+        for (int i = 0; i < wanted.length; i++) {
+            wanted[i] = priorities.get(i);
+        }
+
+        // drop previews that left the window
+        for (int i = previews.size() - 1; i >= 0; i--) {
+            if (priorityOf(previews.keyAt(i)) < 0) {
+                recycle(previews.valueAt(i));
+                previews.removeAt(i);
+            }
+        }
+
+        boolean startWorker;
+        synchronized (pending) {
+            pending.clear();
+            batch = new Batch(path, document, generation, bitmapConfig, renderAnnotations && qualityAnnotations);
+            float scale = progressive ? qualityScale : resolution;
+            for (int page : wanted) {
+                if (previews.get(page) == null) {
+                    SizeF size = view.getPageSize(page);
+                    int width = Math.max(1, Math.round(size.getWidth() * scale));
+                    int height = Math.max(1, Math.round(size.getHeight() * scale));
+                    pending.add(new int[] {page, order.getDocumentPage(page), width, height});
+                }
+            }
+            startWorker = !workerRunning && !pending.isEmpty();
+            workerRunning |= startWorker;
+        }
+        if (startWorker) {
+            renderExecutor.execute(this::renderPending);
+        }
+    }
+
+    // position in the wanted list, lower is more important, -1 if not wanted
+    private int priorityOf(int page) {
+        for (int i = 0; i < wanted.length; i++) {
+            if (wanted[i] == page) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Runs until nothing is pending. Pages are rendered with the batch they were queued
+    // with, so a worker still busy when the document changed goes on with the new pages.
+    private void renderPending() {
+        Batch current = null;
+        try {
+            while (true) {
+                int[] item;
+                synchronized (pending) {
+                    item = pending.poll();
+                    if (item == null) {
+                        workerRunning = false;
+                        return;
+                    }
+                    current = batch;
+                }
+                final int page = item[0];
+                final int renderGeneration = current.generation;
+                PdfDocument pdfDocument = current.document.borrow();
+                if (pdfDocument == null) {
+                    // PDFView let go of this document, pages of the next one may follow
+                    continue;
+                }
+                final Bitmap preview;
+                try {
+                    preview = render(pdfDocument, item[1], item[2], item[3], current.config, current.annotations);
+                } finally {
+                    current.document.giveBack();
+                }
+                if (preview != null) {
+                    view.post(() -> onPreviewRendered(renderGeneration, page, preview));
+                }
+            }
+        } catch (Exception e) {
+            Log.w(TAG, format("prefetch of %s failed", current != null ? current.path : path), e);
+            synchronized (pending) {
+                pending.clear();
+                workerRunning = false;
+            }
+        }
+    }
+
+    private static Bitmap render(PdfDocument pdfDocument, int documentPage, int width, int height,
+                                 Bitmap.Config config, boolean annotations) {
+        long section = PdfMetrics.beginSection("PagePrefetcher.render");
+        PdfPage pdfPage = null;
+        try {
+            pdfPage = pdfDocument.openPage(documentPage);
+            Bitmap bitmap = PdfBitmapPool.get(width, height, config);
+            bitmap.eraseColor(Color.WHITE);
+            pdfPage.renderPageBitmap(bitmap, 0, 0, width, height, annotations, false);
+            return bitmap;
+        } catch (OutOfMemoryError e) {
+            return null;
+        } finally {
+            if (pdfPage != null) {
+                pdfPage.close();
+            }
+            PdfMetrics.endSection("pageRender", section);
+        }
+    }
+
+    private void onPreviewRendered(int renderGeneration, int page, Bitmap preview) {
+        int priority = priorityOf(page);
+        if (renderGeneration != generation || priority < 0 || previews.get(page) != null) {
+            PdfBitmapPool.put(preview);
+            return;
+        }
+
+        long bytes = preview.getByteCount();
+        while (usedBytes.get() + bytes > PdfMemoryManager.getPreviewBudgetBytes()) {
+            // give up the least important preview we hold, if it matters less than this one
+            int victim = -1;
+            int victimPriority = priority;
+            for (int i = 0; i < previews.size(); i++) {
+                int p = priorityOf(previews.keyAt(i));
+                if (p > victimPriority) {
+                    victim = previews.keyAt(i);
+                    victimPriority = p;
+                }
+            }
+            if (victim < 0) {
+                // budget hit: stop prefetching further out
+                PdfBitmapPool.put(preview);
+                synchronized (pending) {
+                    pending.clear();
+                }
+                return;
+            }
+            recycle(previews.get(victim));
+            previews.remove(victim);
+            PdfMetrics.increment("previews.evictions");
+        }
+
+        PdfMetrics.setGauge("previews.bytes", usedBytes.addAndGet(bytes));
+        previews.put(page, preview);
+        view.invalidate();
+    }
+
+    private static void recycle(Bitmap bitmap) {
+        if (bitmap != null) {
+            PdfMetrics.setGauge("previews.bytes", usedBytes.addAndGet(-bitmap.getByteCount()));
+            PdfBitmapPool.put(bitmap);
+        }
+    }
+}
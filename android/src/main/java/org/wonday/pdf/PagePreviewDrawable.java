@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.PixelFormat;
+import android.graphics.drawable.Drawable;
+
+/**
+ * Background of PdfView. PDFView draws its background before any page part, which makes
+ * this the one place to paint prefetched previews beneath the real pages. Keeps the
+ * backgroundColor style working by painting that color first (white, like PDFView, when
+ * none is set).
+ */
+public class PagePreviewDrawable extends Drawable {
+
+    private final PagePrefetcher prefetcher;
+    private int color = Color.WHITE;
+
+    public PagePreviewDrawable(PagePrefetcher prefetcher) {
+        this.prefetcher = prefetcher;
+    }
+
+    public void setColor(int color) {
+        if (this.color != color) {
+            this.color = color;
+            invalidateSelf();
+        }
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        canvas.drawColor(color);
+        prefetcher.draw(canvas);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+    }
+
+    @Override
+    public int getOpacity() {
+        return Color.alpha(color) == 255 ? PixelFormat.OPAQUE : PixelFormat.TRANSLUCENT;
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.graphics.Bitmap;
+
+/**
+ * Bitmaps given up by our own render paths (page previews, RCTPdfPageView, thumbnails),
+ * handed out again instead of allocating, so scrolling doesn't churn the heap. Exact size
+ * matches are preferred; a larger free bitmap is reconfigured when it wastes at most half.
+ */
+public class PdfBitmapPool {
+
+    private static final List<Bitmap> free = new ArrayList<>();
+    private static long freeBytes = 0;
+
+    public static synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+        long needed = (long) width * height * bytesPerPixel(config);
+        int candidate = -1;
+        for (int i = 0; i < free.size(); i++) {
+            Bitmap bitmap = free.get(i);
+            if (bitmap.getWidth() == width && bitmap.getHeight() == height && bitmap.getConfig() == config) {
+                candidate = i;
+                break;
+            }
+            int size = bitmap.getAllocationByteCount();
+            if (candidate < 0 && size >= needed && size <= needed * 2) {
+                candidate = i;
+            }
+        }
+
+        if (candidate >= 0) {
+            Bitmap bitmap = free.remove(candidate);
+            freeBytes -= bitmap.getAllocationByteCount();
+            if (bitmap.getWidth() != width || bitmap.getHeight() != height || bitmap.getConfig() != config) {
+                bitmap.reconfigure(width, height, config);
+            }
+            PdfMetrics.increment("pool.hits");
+            PdfMetrics.setGauge("pool.bytes", freeBytes);
+            return bitmap;
+        }
+        PdfMetrics.increment("pool.misses");
+        return Bitmap.createBitmap(width, height, config);
+    }
+
+    // Takes ownership of bitmap, the caller must not draw it any more.
+    public static synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) {
+            return;
+        }
+        long size = bitmap.getAllocationByteCount();
+        if (!bitmap.isMutable() || freeBytes + size > PdfMemoryManager.getPoolBudgetBytes()) {
+            bitmap.recycle();
+            PdfMetrics.increment("pool.evictions");
+            return;
+        }
+        free.add(bitmap);
+        freeBytes += size;
+        PdfMetrics.setGauge("pool.bytes", freeBytes);
+    }
+
+    public static synchronized void clear() {
+        for (Bitmap bitmap : free) {
+            bitmap.recycle();
+        }
+        PdfMetrics.add("pool.evictions", free.size());
+        free.clear();
+        freeBytes = 0;
+        PdfMetrics.setGauge("pool.bytes", 0);
+    }
+
+    private static int bytesPerPixel(Bitmap.Config config) {
+        return config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444 ? 2 : config == Bitmap.Config.ALPHA_8 ? 1 : 4;
+    }
+}
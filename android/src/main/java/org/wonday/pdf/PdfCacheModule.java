@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.module.annotations.ReactModule;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+/**
+ * JS entry point of PdfDiskCache: serves cached downloads, revalidates stale ones with
+ * conditional requests and downloads the rest through PdfDownloader.
+ */
+@ReactModule(name = PdfCacheModule.NAME)
+public class PdfCacheModule extends ReactContextBaseJavaModule {
+    public static final String NAME = "PdfCache";
+
+    // running fetches by the request id JS picked
+    private final Map<Integer, PdfDownloader> downloads = new HashMap<>();
+
+    public PdfCacheModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Resolves {path, status} where status is "hit" (fresh file on disk), "revalidated"
+     * (stale file confirmed by a 304) or "downloaded". expiration is in seconds, 0 never
+     * expires. Progress is reported through PdfDownloadProgress events, trustAllCerts is
+     * passed on to PdfDownloader.
+     */
+    @ReactMethod
+    public void fetch(final int requestId, final String url, final String path, final ReadableMap headers, final double expiration, final boolean trustAllCerts, final Promise promise) {
+        final PdfDiskCache cache = PdfDiskCache.get(getReactApplicationContext());
+        final PdfDiskCache.Entry entry = cache.lookup(path, url);
+
+        if (entry != null && entry.isFresh((long) (expiration * 1000), System.currentTimeMillis())) {
+            cache.recordHit(entry, false, null, null);
+            promise.resolve(result(path, "hit"));
+            return;
+        }
+
+        Map<String, String> requestHeaders = new HashMap<>();
+        if (headers != null) {
+            ReadableMapKeySetIterator iterator = headers.keySetIterator();
+            while (iterator.hasNextKey()) {
+                String key = iterator.nextKey();
+                requestHeaders.put(key, headers.getString(key));
+            }
+        }
+        if (entry != null) {
+            if (entry.etag != null) {
+                requestHeaders.put("If-None-Match", entry.etag);
+            }
+            if (entry.lastModified != null) {
+                requestHeaders.put("If-Modified-Since", entry.lastModified);
+            }
+        }
+
+        PdfDownloader downloader = new PdfDownloader(url, requestHeaders, trustAllCerts, new File(path), new PdfDownloader.Listener() {
+            @Override
+            public void onProgress(long received, long total) {
+                WritableMap event = Arguments.createMap();
+                event.putInt("requestId", requestId);
+                event.putDouble("received", received);
+                event.putDouble("total", total);
+                getReactApplicationContext()
+                        .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                        .emit(PdfManagerModule.DOWNLOAD_PROGRESS_EVENT, event);
+            }
+
+            @Override
+            public void onComplete(File file, boolean modified, String etag, String lastModified) {
+                removeDownload(requestId);
+                if (!modified && entry != null) {
+                    cache.recordHit(entry, true, etag, lastModified);
+                    promise.resolve(result(path, "revalidated"));
+                } else {
+                    cache.recordDownload(path, url, etag, lastModified);
+                    promise.resolve(result(path, "downloaded"));
+                }
+            }
+
+            @Override
+            public void onError(Exception e, int status) {
+                removeDownload(requestId);
+                WritableMap userInfo = Arguments.createMap();
+                userInfo.putInt("status", status);
+                promise.reject("error", "DownloadFailed:" + url, e, userInfo);
+            }
+        });
+        synchronized (downloads) {
+            downloads.put(requestId, downloader);
+        }
+        downloader.start();
+    }
+
+    @ReactMethod
+    public void cancelFetch(int requestId) {
+        PdfDownloader downloader = removeDownload(requestId);
+        if (downloader != null) {
+            downloader.cancel();
+        }
+    }
+
+    // Byte quota over all cached files, least recently used ones are evicted first.
+    @ReactMethod
+    public void setMaxSize(double maxBytes) {
+        PdfDiskCache.get(getReactApplicationContext()).setMaxBytes((long) maxBytes);
+    }
+
+    @ReactMethod
+    public void remove(String path) {
+        PdfDiskCache.get(getReactApplicationContext()).remove(path);
+    }
+
+    @ReactMethod
+    public void getStats(Promise promise) {
+        WritableMap stats = Arguments.createMap();
+        for (Map.Entry<String, Long> stat : PdfDiskCache.get(getReactApplicationContext()).getStats().entrySet()) {
+            stats.putDouble(stat.getKey(), stat.getValue());
+        }
+        promise.resolve(stats);
+    }
+
+    // Required by NativeEventEmitter
+    @ReactMethod
+    public void addListener(String eventName) {
+    }
+
+    @ReactMethod
+    public void removeListeners(double count) {
+    }
+
+    private PdfDownloader removeDownload(int requestId) {
+        synchronized (downloads) {
+            return downloads.remove(requestId);
+        }
+    }
+
+    private static WritableMap result(String path, String status) {
+        WritableMap result = Arguments.createMap();
+        result.putString("path", path);
+        result.putString("status", status);
+        return result;
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        synchronized (downloads) {
+            for (PdfDownloader downloader : downloads.values()) {
+                downloader.cancel();
+            }
+            downloads.clear();
+        }
+    }
+}
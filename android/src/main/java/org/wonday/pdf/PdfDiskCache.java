@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import static java.lang.String.format;
+
+/**
+ * Bookkeeping for downloaded pdfs: which url each cached file came from, its validators,
+ * size and last use. Keeps the total under a byte quota by evicting the least recently
+ * used files, and tells callers whether a stale file can be revalidated instead of
+ * downloaded again. The index is a small json file next to the cached files.
+ */
+public class PdfDiskCache {
+
+    private static final String TAG = "PdfDiskCache";
+    private static final String INDEX_FILE = "rnpdf-cache-index.json";
+
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    public static class Entry {
+        public final String path;
+        public String url;
+        public String etag;
+        public String lastModified;
+        public long size;
+        public long downloadedAt;
+        public long lastAccess;
+
+        Entry(String path) {
+            this.path = path;
+        }
+
+        // true when the server can answer a conditional request for this file
+        public boolean canRevalidate() {
+            return etag != null || lastModified != null;
+        }
+
+        public boolean isFresh(long expirationMs, long now) {
+            return expirationMs <= 0 || downloadedAt + expirationMs > now;
+        }
+    }
+
+    private static PdfDiskCache instance;
+
+    private final File indexFile;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long maxBytes = DEFAULT_MAX_BYTES;
+
+    private long hits;
+    private long misses;
+    private long revalidations;
+    private long bytesDownloaded;
+    private long evictions;
+
+    private PdfDiskCache(File indexFile) {
+        this.indexFile = indexFile;
+        load();
+    }
+
+    public static synchronized PdfDiskCache get(Context context) {
+        if (instance == null) {
+            instance = new PdfDiskCache(new File(context.getApplicationContext().getCacheDir(), INDEX_FILE));
+        }
+        return instance;
+    }
+
+    /**
+     * Entry for path if the file is still on disk and was cached from url, null otherwise.
+     */
+    public synchronized Entry lookup(String path, String url) {
+        Entry entry = entries.get(path);
+        if (entry != null && (!url.equals(entry.url) || !new File(path).exists())) {
+            entries.remove(path);
+            entry = null;
+        }
+        return entry;
+    }
+
+    // Served from disk, possibly after a 304.
+    public synchronized void recordHit(Entry entry, boolean revalidated, String etag, String lastModified) {
+        hits++;
+        long now = System.currentTimeMillis();
+        entry.lastAccess = now;
+        if (revalidated) {
+            revalidations++;
+            entry.downloadedAt = now;
+            if (etag != null) {
+                entry.etag = etag;
+            }
+            if (lastModified != null) {
+                entry.lastModified = lastModified;
+            }
+        }
+        save();
+    }
+
+    public synchronized void recordDownload(String path, String url, String etag, String lastModified) {
+        misses++;
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(path);
+        entry.url = url;
+        entry.etag = etag;
+        entry.lastModified = lastModified;
+        entry.size = new File(path).length();
+        entry.downloadedAt = now;
+        entry.lastAccess = now;
+        entries.put(path, entry);
+        bytesDownloaded += entry.size;
+        trim(path);
+        save();
+    }
+
+    public synchronized void remove(String path) {
+        if (entries.remove(path) != null) {
+            new File(path).delete();
+            save();
+        }
+    }
+
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        trim(null);
+        save();
+    }
+
+    public synchronized Map<String, Long> getStats() {
+        Map<String, Long> stats = new HashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("revalidations", revalidations);
+        stats.put("bytesDownloaded", bytesDownloaded);
+        stats.put("evictions", evictions);
+        stats.put("size", totalBytes());
+        stats.put("maxSize", maxBytes);
+        stats.put("count", (long) entries.size());
+        return stats;
+    }
+
+    private long totalBytes() {
+        long total = 0;
+        for (Entry entry : entries.values()) {
+            total += entry.size;
+        }
+        return total;
+    }
+
+    // Evicts least recently used files until the quota holds. keep is the file just
+    // written, it stays even if it alone exceeds the quota.
+    private void trim(String keep) {
+        long total = totalBytes();
+        if (total <= maxBytes) {
+            return;
+        }
+        List<Entry> byAccess = new ArrayList<>(entries.values());
+        Collections.sort(byAccess, (a, b) -> Long.compare(a.lastAccess, b.lastAccess));
+        Iterator<Entry> iterator = byAccess.iterator();
+        while (total > maxBytes && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.path.equals(keep)) {
+                continue;
+            }
+            entries.remove(entry.path);
+            new File(entry.path).delete();
+            total -= entry.size;
+            evictions++;
+            Log.d(TAG, format("evicted %s, %d bytes", entry.path, entry.size));
+        }
+    }
+
+    private void load() {
+        if (!indexFile.exists()) {
+            return;
+        }
+        try {
+            byte[] bytes = new byte[(int) indexFile.length()];
+            try (RandomAccessFile input = new RandomAccessFile(indexFile, "r")) {
+                input.readFully(bytes);
+            }
+            JSONObject json = new JSONObject(new String(bytes, StandardCharsets.UTF_8));
+            maxBytes = json.optLong("maxBytes", DEFAULT_MAX_BYTES);
+            JSONObject items = json.getJSONObject("entries");
+            Iterator<String> paths = items.keys();
+            while (paths.hasNext()) {
+                String path = paths.next();
+                JSONObject item = items.getJSONObject(path);
+                Entry entry = new Entry(path);
+                entry.url = item.getString("url");
+                entry.etag = item.optString("etag", null);
+                entry.lastModified = item.optString("lastModified", null);
+                entry.size = item.getLong("size");
+                entry.downloadedAt = item.getLong("downloadedAt");
+                entry.lastAccess = item.getLong("lastAccess");
+                entries.put(path, entry);
+            }
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "unreadable cache index, starting empty", e);
+            entries.clear();
+        }
+    }
+
+    private void save() {
+        try {
+            JSONObject items = new JSONObject();
+            for (Entry entry : entries.values()) {
+                JSONObject item = new JSONObject();
+                item.put("url", entry.url);
+                item.putOpt("etag", entry.etag);
+                item.putOpt("lastModified", entry.lastModified);
+                item.put("size", entry.size);
+                item.put("downloadedAt", entry.downloadedAt);
+                item.put("lastAccess", entry.lastAccess);
+                items.put(entry.path, item);
+            }
+            JSONObject json = new JSONObject();
+            json.put("maxBytes", maxBytes);
+            json.put("entries", items);
+
+            File temp = new File(indexFile.getPath() + ".tmp");
+            try (FileOutputStream output = new FileOutputStream(temp)) {
+                output.write(json.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            if (!temp.renameTo(indexFile)) {
+                temp.delete();
+            }
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "failed to write cache index", e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import android.content.Context;
+import android.util.Log;
+
+import io.legere.pdfiumandroid.PdfDocument;
+
+import static java.lang.String.format;
+
+/**
+ * Process-wide LRU of opened Pdfium documents.
+ *
+ * Documents are keyed by path, file size, modification time and password, so a file that
+ * is rewritten in place is opened again instead of served from a stale parse. Every user
+ * holds a Handle; documents with no handles stay open until the cache grows past
+ * maxDocuments, then the least recently used idle ones are closed.
+ */
+public class PdfDocumentCache {
+
+    private static final String TAG = "PdfDocumentCache";
+
+    private static int maxDocuments = 4;
+
+    // access-ordered, eldest entry first
+    private static final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static class Entry {
+        final PdfDocument document;
+        int refCount = 0;
+
+        Entry(PdfDocument document) {
+            this.document = document;
+        }
+    }
+
+    public static class Handle {
+        private final String key;
+        private final PdfDocument document;
+        private boolean released = false;
+
+        private Handle(String key, PdfDocument document) {
+            this.key = key;
+            this.document = document;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public PdfDocument getDocument() {
+            return document;
+        }
+
+        public void release() {
+            synchronized (PdfDocumentCache.class) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            PdfDocumentCache.release(key);
+        }
+    }
+
+    public static Handle acquire(Context context, String path, String password) throws IOException {
+        String key = createKey(path, password);
+
+        synchronized (PdfDocumentCache.class) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                entry.refCount++;
+                return new Handle(key, entry.document);
+            }
+        }
+
+        // Parsing can take a while, keep it outside of the lock. If another thread opened the
+        // same document in the meantime, keep theirs and close ours.
+        PdfDocument document = PdfiumHolder.openDocument(context, path, password);
+        PdfDocument duplicate = null;
+        Handle handle;
+        synchronized (PdfDocumentCache.class) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(document);
+                entries.put(key, entry);
+            } else {
+                duplicate = document;
+            }
+            entry.refCount++;
+            handle = new Handle(key, entry.document);
+        }
+        if (duplicate != null) {
+            duplicate.close();
+        }
+        trim();
+        return handle;
+    }
+
+    private static void release(String key) {
+        synchronized (PdfDocumentCache.class) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.refCount > 0) {
+                entry.refCount--;
+            }
+        }
+        trim();
+    }
+
+    public static void setMaxDocuments(int maxDocuments) {
+        synchronized (PdfDocumentCache.class) {
+            PdfDocumentCache.maxDocuments = Math.max(0, maxDocuments);
+        }
+        trim();
+    }
+
+    /**
+     * Close idle documents, oldest first, until the cache fits into maxDocuments.
+     * Documents that still have handles are never closed.
+     */
+    public static void trim() {
+        List<PdfDocument> evicted = new ArrayList<>();
+        synchronized (PdfDocumentCache.class) {
+            int overflow = entries.size() - maxDocuments;
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while (overflow > 0 && iterator.hasNext()) {
+                Map.Entry<String, Entry> item = iterator.next();
+                if (item.getValue().refCount == 0) {
+                    evicted.add(item.getValue().document);
+                    iterator.remove();
+                    overflow--;
+                }
+            }
+        }
+        for (PdfDocument document : evicted) {
+            document.close();
+        }
+        if (!evicted.isEmpty()) {
+            Log.d(TAG, format("closed %d idle documents", evicted.size()));
+        }
+    }
+
+    // The password goes in as a digest: the key is handed out with every Handle, and two
+    // passwords must never share an entry the way their hash codes can.
+    private static String createKey(String path, String password) throws IOException {
+        StringBuilder key = new StringBuilder(path);
+        if (!path.startsWith("content://")) {
+            File file = PdfiumHolder.getFile(path);
+            key.append('|').append(file.length()).append('|').append(file.lastModified());
+        }
+        if (password != null && !password.isEmpty()) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                key.append('|').append(PdfFingerprint.toHex(digest.digest(password.getBytes(StandardCharsets.UTF_8))));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException(e);
+            }
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import io.legere.pdfiumandroid.PdfDocument;
+
+/**
+ * Opens the documents of one PdfView off the main thread. Every open is a new generation
+ * and makes the earlier ones stale: a stale open still queued is skipped, and a document
+ * a stale open produced is closed instead of delivered, so only the latest open of a view
+ * ever reaches it. Pdfium can't abort a parse that already started, that one finishes
+ * and is thrown away.
+ */
+class PdfDocumentOpener {
+
+    interface Target {
+        // called on the open thread
+        PdfDocument open(String path, String password) throws IOException;
+
+        // called on the main thread, for the latest open only
+        void onOpened(PdfDocument document);
+
+        void onError(Exception e);
+    }
+
+    // Pdfium serializes native calls, one thread for the views of all screens is enough.
+    private static final ExecutorService openExecutor = Executors.newSingleThreadExecutor();
+
+    private final Executor background;
+    private final Executor main;
+    private final Target target;
+    private final AtomicInteger generation = new AtomicInteger();
+
+    // the open on its way, main thread only
+    private boolean pending = false;
+    private String pendingPath;
+    private String pendingPassword;
+
+    PdfDocumentOpener(Target target) {
+        this(openExecutor, new Handler(Looper.getMainLooper())::post, target);
+    }
+
+    PdfDocumentOpener(Executor background, Executor main, Target target) {
+        this.background = background;
+        this.main = main;
+        this.target = target;
+    }
+
+    /**
+     * Starts opening path, making every earlier open stale. Another open of the same
+     * document while one is on its way is left to that one.
+     *
+     * @return false when an open of the same document was already on its way
+     */
+    boolean open(final String path, final String password) {
+        if (pending && Objects.equals(path, pendingPath) && Objects.equals(password, pendingPassword)) {
+            return false;
+        }
+        final int token = generation.incrementAndGet();
+        pending = true;
+        pendingPath = path;
+        pendingPassword = password;
+        background.execute(() -> {
+            if (generation.get() != token) {
+                PdfMetrics.increment("opens.skipped");
+                return;
+            }
+            PdfDocument document = null;
+            Exception failure = null;
+            try {
+                document = target.open(path, password);
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+            }
+            if (generation.get() != token) {
+                discard(document);
+                return;
+            }
+            final PdfDocument opened = document;
+            final Exception error = failure;
+            main.execute(() -> {
+                if (generation.get() != token) {
+                    background.execute(() -> discard(opened));
+                    return;
+                }
+                pending = false;
+                pendingPath = null;
+                pendingPassword = null;
+                if (error != null) {
+                    target.onError(error);
+                } else {
+                    target.onOpened(opened);
+                }
+            });
+        });
+        return true;
+    }
+
+    // Makes every open so far stale.
+    void cancel() {
+        generation.incrementAndGet();
+        pending = false;
+        pendingPath = null;
+        pendingPassword = null;
+    }
+
+    boolean isPending() {
+        return pending;
+    }
+
+    int getGeneration() {
+        return generation.get();
+    }
+
+    // whether no open was started or cancelled since the one of generation
+    boolean isCurrent(int generation) {
+        return this.generation.get() == generation;
+    }
+
+    private static void discard(PdfDocument document) {
+        PdfMetrics.increment("opens.discarded");
+        if (document != null) {
+            document.close();
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import android.annotation.SuppressLint;
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import static java.lang.String.format;
+
+/**
+ * Streams a remote pdf into a local file with HTTP range requests. Bytes land in
+ * target + ".tmp" as they arrive, and the response validators are kept next to it, so an
+ * interrupted download (dropped connection, app killed, view unmounted) resumes where it
+ * stopped instead of starting over. The temp file is renamed to target once complete.
+ *
+ * With trustAllCerts, https certificates and host names are not verified, as
+ * react-native-blob-util's trusty option does for the downloads made from JS.
+ */
+public class PdfDownloader {
+
+    private static final String TAG = "PdfDownloader";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 500;
+    private static final long PROGRESS_INTERVAL_MS = 100;
+    private static final int TIMEOUT_MS = 30000;
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private static SSLSocketFactory trustAllSocketFactory;
+
+    public interface Listener {
+        void onProgress(long received, long total);
+
+        // modified is false when a conditional request was answered with 304 Not Modified,
+        // etag and lastModified are the validators of the response, if it had any
+        void onComplete(File file, boolean modified, String etag, String lastModified);
+
+        // status is the HTTP status of a rejected response, or 0 for I/O errors
+        void onError(Exception e, int status);
+    }
+
+    public static class HttpStatusException extends IOException {
+        public final int status;
+
+        HttpStatusException(int status, String url) {
+            super(format("DownloadFailed:%s status=%d", url, status));
+            this.status = status;
+        }
+    }
+
+    private final String url;
+    private final Map<String, String> headers;
+    private final boolean trustAllCerts;
+    private final File target;
+    private final File temp;
+    private final File meta;
+    private final Listener listener;
+
+    private volatile boolean cancelled;
+    private volatile HttpURLConnection connection;
+
+    private long lastProgressTime;
+    private boolean modified = true;
+    private String etag;
+    private String lastModified;
+
+    public PdfDownloader(String url, Map<String, String> headers, boolean trustAllCerts, File target, Listener listener) {
+        this.url = url;
+        this.headers = headers;
+        this.trustAllCerts = trustAllCerts;
+        this.target = target;
+        this.temp = new File(target.getPath() + ".tmp");
+        this.meta = new File(target.getPath() + ".tmp.json");
+        this.listener = listener;
+    }
+
+    public void start() {
+        executor.execute(this::run);
+    }
+
+    // Keeps the partial file, a later download of the same url picks it up.
+    public void cancel() {
+        cancelled = true;
+        HttpURLConnection current = connection;
+        if (current != null) {
+            current.disconnect();
+        }
+    }
+
+    private void run() {
+        IOException failure = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && !cancelled; attempt++) {
+            try {
+                if (attempt > 0) {
+                    SystemClock.sleep(RETRY_DELAY_MS * attempt);
+                }
+                fetch();
+                // fetch stops early when cancelled, the download must still settle
+                if (cancelled) {
+                    listener.onError(new IOException("Download cancelled"), 0);
+                } else {
+                    listener.onComplete(target, modified, etag, lastModified);
+                }
+                return;
+            } catch (HttpStatusException e) {
+                discardPartial();
+                listener.onError(e, e.status);
+                return;
+            } catch (IOException e) {
+                Log.w(TAG, format("download attempt %d of %s failed", attempt + 1, url), e);
+                failure = e;
+            }
+        }
+        if (cancelled) {
+            listener.onError(new IOException("Download cancelled"), 0);
+        } else {
+            listener.onError(failure, 0);
+        }
+    }
+
+    private void fetch() throws IOException {
+        JSONObject validators = readValidators();
+        String validator = validators != null ? validators.optString("etag", validators.optString("lastModified", "")) : "";
+        long offset = 0;
+        if (!validator.isEmpty()) {
+            offset = temp.length();
+        } else if (validators != null) {
+            // without If-Range a changed file would be appended to the old prefix
+            discardPartial();
+        }
+
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        connection = conn;
+        try {
+            if (trustAllCerts && conn instanceof HttpsURLConnection) {
+                trustAll((HttpsURLConnection) conn);
+            }
+            conn.setConnectTimeout(TIMEOUT_MS);
+            conn.setReadTimeout(TIMEOUT_MS);
+            // ranges are computed on the encoded body otherwise
+            conn.setRequestProperty("Accept-Encoding", "identity");
+            if (headers != null) {
+                for (Map.Entry<String, String> header : headers.entrySet()) {
+                    conn.setRequestProperty(header.getKey(), header.getValue());
+                }
+            }
+            if (offset > 0) {
+                conn.setRequestProperty("Range", "bytes=" + offset + "-");
+                conn.setRequestProperty("If-Range", validator);
+            }
+
+            int status = conn.getResponseCode();
+            etag = conn.getHeaderField("ETag");
+            lastModified = conn.getHeaderField("Last-Modified");
+            long total;
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && target.exists()) {
+                // revalidated, the file we already have is current
+                modified = false;
+                discardPartial();
+                return;
+            } else if (status == HttpURLConnection.HTTP_PARTIAL && offset > 0) {
+                total = parseTotal(conn.getHeaderField("Content-Range"));
+            } else if (status == 416 && offset > 0 && offset == validators.optLong("length", -1)) {
+                // everything was already there
+                finish(offset);
+                return;
+            } else if (status >= 200 && status < 300) {
+                offset = 0;
+                total = parseLength(conn.getHeaderField("Content-Length"));
+            } else if (status == 416) {
+                // stale partial file, start over
+                discardPartial();
+                throw new IOException("Range not satisfiable, restarting");
+            } else {
+                throw new HttpStatusException(status, url);
+            }
+
+            writeValidators(etag, lastModified, total);
+
+            long received = offset;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream input = conn.getInputStream();
+                 RandomAccessFile output = new RandomAccessFile(temp, "rw")) {
+                output.setLength(offset);
+                output.seek(offset);
+                int read;
+                while (!cancelled && (read = input.read(buffer)) >= 0) {
+                    output.write(buffer, 0, read);
+                    received += read;
+                    reportProgress(received, total, false);
+                }
+            }
+            if (cancelled) {
+                return;
+            }
+            if (total >= 0 && received != total) {
+                throw new IOException(format("Truncated download, received %d of %d bytes", received, total));
+            }
+            reportProgress(received, total, true);
+            finish(received);
+        } finally {
+            connection = null;
+            conn.disconnect();
+        }
+    }
+
+    @SuppressLint("BadHostnameVerifier")
+    private static void trustAll(HttpsURLConnection conn) throws IOException {
+        conn.setSSLSocketFactory(getTrustAllSocketFactory());
+        conn.setHostnameVerifier((hostname, session) -> true);
+    }
+
+    @SuppressLint("TrustAllX509TrustManager")
+    private static synchronized SSLSocketFactory getTrustAllSocketFactory() throws IOException {
+        if (trustAllSocketFactory == null) {
+            TrustManager trustManager = new X509TrustManager() {
+                @Override
+                public void checkClientTrusted(X509Certificate[] chain, String authType) {
+                }
+
+                @Override
+                public void checkServerTrusted(X509Certificate[] chain, String authType) {
+                }
+
+                @Override
+                public X509Certificate[] getAcceptedIssuers() {
+                    return new X509Certificate[0];
+                }
+            };
+            try {
+                SSLContext context = SSLContext.getInstance("TLS");
+                context.init(null, new TrustManager[] {trustManager}, new SecureRandom());
+                trustAllSocketFactory = context.getSocketFactory();
+            } catch (GeneralSecurityException e) {
+                throw new IOException(e);
+            }
+        }
+        return trustAllSocketFactory;
+    }
+
+    private void finish(long length) throws IOException {
+        if (target.exists() && !target.delete()) {
+            throw new IOException("Unable to replace " + target);
+        }
+        if (!temp.renameTo(target)) {
+            throw new IOException("Unable to move " + temp + " to " + target);
+        }
+        meta.delete();
+        Log.d(TAG, format("downloaded %s, %d bytes", url, length));
+    }
+
+    private void reportProgress(long received, long total, boolean force) {
+        long now = SystemClock.uptimeMillis();
+        if (force || now - lastProgressTime >= PROGRESS_INTERVAL_MS) {
+            lastProgressTime = now;
+            listener.onProgress(received, total);
+        }
+    }
+
+    // "bytes 100-199/200" -> 200, or -1 when the total is unknown
+    private static long parseTotal(String contentRange) {
+        if (contentRange != null) {
+            int slash = contentRange.lastIndexOf('/');
+            if (slash >= 0) {
+                try {
+                    return Long.parseLong(contentRange.substring(slash + 1).trim());
+                } catch (NumberFormatException e) {
+                    // "*"
+                }
+            }
+        }
+        return -1;
+    }
+
+    // getContentLengthLong needs API 24
+    private static long parseLength(String contentLength) {
+        if (contentLength != null) {
+            try {
+                return Long.parseLong(contentLength.trim());
+            } catch (NumberFormatException e) {
+                // malformed header
+            }
+        }
+        return -1;
+    }
+
+    private JSONObject readValidators() {
+        if (!temp.exists() || !meta.exists()) {
+            return null;
+        }
+        try {
+            byte[] bytes = new byte[(int) meta.length()];
+            try (RandomAccessFile input = new RandomAccessFile(meta, "r")) {
+                input.readFully(bytes);
+            }
+            return new JSONObject(new String(bytes, "UTF-8"));
+        } catch (IOException | JSONException e) {
+            return null;
+        }
+    }
+
+    private void writeValidators(String etag, String lastModified, long length) throws IOException {
+        try {
+            JSONObject json = new JSONObject();
+            json.putOpt("etag", etag);
+            json.putOpt("lastModified", lastModified);
+            json.put("length", length);
+            try (FileOutputStream output = new FileOutputStream(meta)) {
+                output.write(json.toString().getBytes("UTF-8"));
+            }
+        } catch (JSONException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void discardPartial() {
+        temp.delete();
+        meta.delete();
+    }
+}
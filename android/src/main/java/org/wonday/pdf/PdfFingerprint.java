@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+
+/**
+ * Content hash used to key on-disk caches (metadata index, thumbnails, text index).
+ *
+ * Hashing a whole 200 MB file on every open would cost more than the parse it is meant to
+ * skip, so the hash covers the file size plus its first and last 64 KB. The trailer and
+ * cross-reference data live at the end of a PDF and the header and linearization data at
+ * the start, so an edited document practically always changes one of them.
+ */
+public class PdfFingerprint {
+
+    private static final int SAMPLE_SIZE = 64 * 1024;
+    private static final int MAX_MEMOIZED = 32;
+
+    // path|size|mtime -> fingerprint, so repeated opens of an unchanged file skip the reads
+    private static final LinkedHashMap<String, String> memo = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_MEMOIZED;
+        }
+    };
+
+    /**
+     * @return the fingerprint, or null if the source can't be read with random access
+     */
+    public static String of(Context context, String path) throws IOException {
+        String memoKey = null;
+        if (!path.startsWith("content://")) {
+            File file = PdfiumHolder.getFile(path);
+            memoKey = path + '|' + file.length() + '|' + file.lastModified();
+            synchronized (memo) {
+                String fingerprint = memo.get(memoKey);
+                if (fingerprint != null) {
+                    return fingerprint;
+                }
+            }
+        }
+
+        ParcelFileDescriptor fd;
+        if (path.startsWith("content://")) {
+            fd = context.getContentResolver().openFileDescriptor(Uri.parse(path), "r");
+            if (fd == null) {
+                return null;
+            }
+        } else {
+            fd = ParcelFileDescriptor.open(PdfiumHolder.getFile(path), ParcelFileDescriptor.MODE_READ_ONLY);
+        }
+
+        String fingerprint;
+        try (FileInputStream input = new FileInputStream(fd.getFileDescriptor())) {
+            long size = fd.getStatSize();
+            if (size < 0) {
+                return null;
+            }
+            FileChannel channel = input.getChannel();
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(ByteBuffer.allocate(8).putLong(0, size));
+            update(digest, channel, 0, Math.min(size, SAMPLE_SIZE));
+            if (size > SAMPLE_SIZE) {
+                long tailStart = Math.max(SAMPLE_SIZE, size - SAMPLE_SIZE);
+                update(digest, channel, tailStart, size - tailStart);
+            }
+            fingerprint = toHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        } finally {
+            fd.close();
+        }
+
+        if (memoKey != null) {
+            synchronized (memo) {
+                memo.put(memoKey, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    private static void update(MessageDigest digest, FileChannel channel, long position, long length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        digest.update(buffer);
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16));
+            hex.append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
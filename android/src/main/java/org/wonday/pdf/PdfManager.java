@@ -8,7 +8,10 @@
 
 package org.wonday.pdf;
 
+import java.util.Arrays;
+
 import android.content.Context;
+import android.util.SparseArray;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -16,6 +19,7 @@ import androidx.annotation.Nullable;
 import com.facebook.infer.annotation.Assertions;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.module.annotations.ReactModule;
 import com.facebook.react.uimanager.SimpleViewManager;
 import com.facebook.react.uimanager.ThemedReactContext;
@@ -25,6 +29,8 @@ import com.facebook.react.uimanager.ViewManagerDelegate;
 import com.facebook.react.viewmanagers.RNPDFPdfViewManagerDelegate;
 import com.facebook.react.viewmanagers.RNPDFPdfViewManagerInterface;
 
+import org.wonday.pdf.events.PdfEventEmitter;
+
 @ReactModule(name = PdfManager.REACT_CLASS)
 public class PdfManager extends SimpleViewManager<PdfView> implements RNPDFPdfViewManagerInterface<PdfView> {
     public static final String REACT_CLASS = "RNPDFPdfView";
@@ -53,22 +59,45 @@ public class PdfManager extends SimpleViewManager<PdfView> implements RNPDFPdfVi
 
     @Override
     public PdfView createViewInstance(ThemedReactContext context) {
-        return new PdfView(context,null);
+        return PdfViewPool.obtain(context);
     }
 
+    // Props every view takes, BaseViewManager keeps them in tags, the accessibility delegate,
+    // pointer events and the outline. PdfView.reset() can't know them all.
+    private static final String[] VIEW_PROPS = {
+        "testID", "nativeID",
+        "accessibilityLabel", "accessibilityHint", "accessibilityRole", "role",
+        "accessibilityState", "accessibilityActions", "accessibilityValue",
+        "accessibilityLiveRegion", "accessibilityLabelledBy", "importantForAccessibility",
+        "pointerEvents",
+        "borderRadius", "borderTopLeftRadius", "borderTopRightRadius",
+        "borderBottomLeftRadius", "borderBottomRightRadius"
+    };
+
+    // Document and bitmaps go right away, the view itself is pooled when the pool is on.
     @Override
     public void onDropViewInstance(PdfView pdfView) {
-        pdfView = null;
+        pdfView.release();
+        super.onDropViewInstance(pdfView);
+        if (PdfViewPool.recycle(pdfView)) {
+            resetViewProps(pdfView);
+        }
+    }
+
+    // Removes the view props the way React removes a prop from a mounted view: the setter
+    // is called with null and puts its default back. Names this React version doesn't know
+    // were never set either.
+    private void resetViewProps(PdfView pdfView) {
+        for (String prop : VIEW_PROPS) {
+            mDelegate.setProperty(pdfView, prop, null);
+        }
     }
 
     @ReactProp(name = "path")
     public void setPath(PdfView pdfView, String path) {
+        // Fabric has been observed to skip the first draw on Android new architecture.
+        // A changed path schedules its own render, so it doesn't rely on the transaction end.
         pdfView.setPath(path);
-        if (path != null && !path.isEmpty()) {
-            // Fabric has been observed to skip the first draw on Android new architecture.
-            // Posting the render when the resolved file path arrives avoids the blank-view state.
-            pdfView.post(pdfView::drawPdf);
-        }
     }
 
     // page start from 1
@@ -117,6 +146,82 @@ public class PdfManager extends SimpleViewManager<PdfView> implements RNPDFPdfVi
         view.setEnableRTL(enableRTL);
     }
 
+    // milliseconds the last frame is kept after detach, 0 = off
+    @ReactProp(name = "retainOnDetach")
+    public void setRetainOnDetach(PdfView pdfView, int retainOnDetach) {
+        pdfView.setRetainOnDetach(retainOnDetach);
+    }
+
+    // minimum milliseconds between two page/scale/scroll events of the same kind
+    @ReactProp(name = "eventThrottleInterval", defaultInt = PdfEventEmitter.DEFAULT_INTERVAL_MS)
+    public void setEventThrottleInterval(PdfView pdfView, int eventThrottleInterval) {
+        pdfView.setEventThrottleInterval(eventThrottleInterval);
+    }
+
+    // pages rendered at low resolution ahead of / behind the scroll direction, 0 = off
+    @ReactProp(name = "prefetchPagesAhead")
+    public void setPrefetchPagesAhead(PdfView pdfView, int prefetchPagesAhead) {
+        pdfView.setPrefetchPagesAhead(prefetchPagesAhead);
+    }
+
+    @ReactProp(name = "prefetchPagesBehind")
+    public void setPrefetchPagesBehind(PdfView pdfView, int prefetchPagesBehind) {
+        pdfView.setPrefetchPagesBehind(prefetchPagesBehind);
+    }
+
+    // "none", "low", "medium" or "high": cheap pass for visible pages while moving
+    @ReactProp(name = "previewQuality")
+    public void setPreviewQuality(PdfView pdfView, String previewQuality) {
+        pdfView.setPreviewQuality(previewQuality);
+    }
+
+    // long press selects text, reported through textSelected/textSelectionCleared events
+    @ReactProp(name = "enableTextSelection", defaultBoolean = true)
+    public void setEnableTextSelection(PdfView pdfView, boolean enableTextSelection) {
+        pdfView.setEnableTextSelection(enableTextSelection);
+    }
+
+    // [{page, rects: [{left, top, right, bottom}]}] with 1-based pages and rects as
+    // fractions of the page, e.g. the hits of PdfManager.search
+    @ReactProp(name = "highlights")
+    public void setHighlights(PdfView pdfView, @Nullable ReadableArray highlights) {
+        SparseArray<float[]> pages = new SparseArray<>();
+        if (highlights != null) {
+            for (int i = 0; i < highlights.size(); i++) {
+                ReadableMap item = highlights.getMap(i);
+                ReadableArray rects = item != null && item.hasKey("rects") ? item.getArray("rects") : null;
+                if (rects == null || !item.hasKey("page")) {
+                    continue;
+                }
+                int page = item.getInt("page") - 1;
+                float[] existing = pages.get(page, new float[0]);
+                float[] merged = Arrays.copyOf(existing, existing.length + rects.size() * 4);
+                for (int j = 0; j < rects.size(); j++) {
+                    ReadableMap rect = rects.getMap(j);
+                    int offset = existing.length + j * 4;
+                    merged[offset] = (float) rect.getDouble("left");
+                    merged[offset + 1] = (float) rect.getDouble("top");
+                    merged[offset + 2] = (float) rect.getDouble("right");
+                    merged[offset + 3] = (float) rect.getDouble("bottom");
+                }
+                pages.put(page, merged);
+            }
+        }
+        pdfView.setHighlights(pages);
+    }
+
+    // fraction of the on-screen page size the prefetched pages are rendered at
+    @ReactProp(name = "prefetchResolution", defaultFloat = PagePrefetcher.DEFAULT_RESOLUTION)
+    public void setPrefetchResolution(PdfView pdfView, float prefetchResolution) {
+        pdfView.setPrefetchResolution(prefetchResolution);
+    }
+
+    // megabytes of rendered pages kept in memory, shared by all pdf views (0 = default)
+    @ReactProp(name = "cacheSizeMB")
+    public void setCacheSizeMB(PdfView pdfView, int cacheSizeMB) {
+        pdfView.setCacheSizeMB(cacheSizeMB);
+    }
+
     @ReactProp(name = "scrollEnabled")
     public void setScrollEnabled(PdfView view, boolean scrollEnabled) {
         view.setScrollEnabled(scrollEnabled);
@@ -157,6 +262,14 @@ public class PdfManager extends SimpleViewManager<PdfView> implements RNPDFPdfVi
         pdfView.setFitPolicy(fitPolicy);
     }
 
+    // {start, end}, 1-based and inclusive document pages; either can be left out
+    @ReactProp(name = "pageRange")
+    public void setPageRange(PdfView pdfView, @Nullable ReadableMap pageRange) {
+        int start = pageRange != null && pageRange.hasKey("start") ? pageRange.getInt("start") : 0;
+        int end = pageRange != null && pageRange.hasKey("end") ? pageRange.getInt("end") : 0;
+        pdfView.setPageRange(start, end);
+    }
+
     @ReactProp(name = "singlePage")
     public void setSinglePage(PdfView pdfView, boolean singlePage) {
         pdfView.setSinglePage(singlePage);
@@ -183,7 +296,8 @@ public class PdfManager extends SimpleViewManager<PdfView> implements RNPDFPdfVi
     public void onAfterUpdateTransaction(PdfView pdfView) {
         super.onAfterUpdateTransaction(pdfView);
         if (pdfView != null) {
-            pdfView.post(pdfView::drawPdf);
+            // only reloads when a prop the loaded document depends on actually changed
+            pdfView.scheduleApplyChanges();
         }
     }
 
@@ -0,0 +1,646 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import io.legere.pdfiumandroid.PdfDocument;
+import io.legere.pdfiumandroid.PdfPage;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableMapKeySetIterator;
+import com.facebook.react.bridge.UiThreadUtil;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.module.annotations.ReactModule;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+import static java.lang.String.format;
+
+/**
+ * Android counterpart of ios/RNPDFPdf/PdfManager.mm: opens a document once and hands
+ * JS a file number that RCTPdfPageView instances use to render single pages.
+ */
+@ReactModule(name = PdfManagerModule.NAME)
+public class PdfManagerModule extends ReactContextBaseJavaModule {
+    public static final String NAME = "PdfManager";
+    public static final String DOWNLOAD_PROGRESS_EVENT = "PdfDownloadProgress";
+    public static final String SEARCH_RESULTS_EVENT = "PdfSearchResults";
+    public static final String METRICS_EVENT = "PdfMetrics";
+    public static final String EXPORT_PROGRESS_EVENT = "PdfExportProgress";
+
+    // Pdfium serializes native calls internally, so one worker is enough for opening files.
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    // transforms can take seconds on big files, keep them off the document worker
+    private static final ExecutorService transformExecutor = Executors.newSingleThreadExecutor();
+
+    private static final List<PdfDocumentCache.Handle> pdfDocRefs = new ArrayList<>();
+
+    // running downloads by the request id JS picked
+    private final Map<Integer, PdfDownloader> downloads = new HashMap<>();
+
+    // running thumbnail batches by the request id JS picked
+    private final Map<Integer, PdfThumbnails.Request> thumbnailRequests = new HashMap<>();
+
+    // running page exports by the request id JS picked
+    private final Map<Integer, PdfPageExport.Request> exports = new HashMap<>();
+
+    // running searches by the request id JS picked
+    private final Map<Integer, PdfTextSearch.Request> searches = new HashMap<>();
+
+    // periodic PdfMetrics events, main thread only
+    private final Handler metricsHandler = new Handler(Looper.getMainLooper());
+    private int metricsInterval = 0;
+    private long reportedMetricsVersion = -1;
+    private final Runnable reportMetrics = new Runnable() {
+        @Override
+        public void run() {
+            long version = PdfMetrics.getVersion();
+            // one snapshot per interval, and none while nothing happened
+            if (version != reportedMetricsVersion) {
+                reportedMetricsVersion = version;
+                getReactApplicationContext()
+                        .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                        .emit(METRICS_EVENT, PdfMetrics.snapshot());
+            }
+            metricsHandler.postDelayed(this, metricsInterval);
+        }
+    };
+
+    public PdfManagerModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+
+    @NonNull
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @ReactMethod
+    public void loadFile(final String path, final String password, final Promise promise) {
+        if (path == null || path.isEmpty()) {
+            promise.reject("error", "Load pdf failed. path=null");
+            return;
+        }
+
+        executor.execute(() -> {
+            PdfDocumentCache.Handle handle;
+            try {
+                handle = PdfDocumentCache.acquire(getReactApplicationContext(), path, password);
+            } catch (Exception e) {
+                String message = e.getMessage();
+                if (message != null && message.contains("Password required or incorrect password")) {
+                    promise.reject("error", "Password required or incorrect password.");
+                } else {
+                    promise.reject("error", format("Load pdf failed. path=%s", path), e);
+                }
+                return;
+            }
+
+            PdfDocument pdfDocument = handle.getDocument();
+            int numberOfPages = pdfDocument.getPageCount();
+            float width = 0;
+            float height = 0;
+            PdfMetadataIndex.Metadata metadata = PdfMetadataIndex.read(getReactApplicationContext(), path, password);
+            if (metadata != null && metadata.pageCount == numberOfPages && numberOfPages > 0) {
+                width = metadata.pageWidths[0];
+                height = metadata.pageHeights[0];
+            } else if (numberOfPages > 0) {
+                PdfMetadataIndex.writeAsync(getReactApplicationContext(), path, password);
+                PdfPage pdfPage = pdfDocument.openPage(0);
+                width = pdfPage.getPageWidthPoint();
+                height = pdfPage.getPageHeightPoint();
+                pdfPage.close();
+            }
+
+            int fileNo;
+            synchronized (pdfDocRefs) {
+                pdfDocRefs.add(handle);
+                fileNo = pdfDocRefs.size() - 1;
+            }
+            Log.d("PdfManager", format("Pdf loaded numberOfPages=%d, fileNo=%d, pageWidth=%f, pageHeight=%f", numberOfPages, fileNo, width, height));
+
+            WritableArray params = Arguments.createArray();
+            params.pushInt(fileNo);
+            params.pushInt(numberOfPages);
+            params.pushDouble(width);
+            params.pushDouble(height);
+            promise.resolve(params);
+        });
+    }
+
+    /**
+     * Outline entries directly under parentId (-1 for the top level). The outline comes from
+     * the metadata index when the file was seen before, otherwise it is read from Pdfium once
+     * per document on the module thread and cached, so paging through nested bookmarks doesn't
+     * walk the tree again.
+     */
+    @ReactMethod
+    public void getTableOfContents(final String path, final String password, final int parentId, final Promise promise) {
+        executor.execute(() -> {
+            PdfDocumentCache.Handle handle = null;
+            try {
+                WritableArray items;
+                PdfMetadataIndex.Metadata metadata = PdfMetadataIndex.read(getReactApplicationContext(), path, password);
+                if (metadata != null) {
+                    String fingerprint = PdfFingerprint.of(getReactApplicationContext(), path);
+                    items = PdfOutline.get(fingerprint, metadata).getChildren(parentId);
+                } else {
+                    handle = PdfDocumentCache.acquire(getReactApplicationContext(), path, password);
+                    items = PdfOutline.get(handle).getChildren(parentId);
+                    PdfMetadataIndex.writeAsync(getReactApplicationContext(), path, password);
+                }
+                if (items == null) {
+                    promise.reject("error", format("Unknown bookmark id %d", parentId));
+                } else {
+                    promise.resolve(items);
+                }
+            } catch (Exception e) {
+                promise.reject("error", format("Load table of contents failed. path=%s", path), e);
+            } finally {
+                if (handle != null) {
+                    handle.release();
+                }
+            }
+        });
+    }
+
+    /**
+     * Text of the given pages (1-based), null for pages out of range. Pages come from the
+     * same per-document text cache as search and text selection, so only pages never read
+     * before go to Pdfium.
+     */
+    @ReactMethod
+    public void getPageText(final String path, final String password, final ReadableArray pages, final Promise promise) {
+        executor.execute(() -> {
+            PdfDocumentCache.Handle handle = null;
+            try {
+                handle = PdfDocumentCache.acquire(getReactApplicationContext(), path, password);
+                PdfDocument pdfDocument = handle.getDocument();
+                String key = PdfTextIndex.getKey(getReactApplicationContext(), path, password);
+                PdfTextIndex index = PdfTextIndex.obtain(getReactApplicationContext(), key, pdfDocument.getPageCount(),
+                        PdfTextIndex.isPersistent(key));
+
+                WritableArray result = Arguments.createArray();
+                for (int i = 0; i < pages.size(); i++) {
+                    int pageIndex = pages.getInt(i) - 1;
+                    if (pageIndex >= 0 && pageIndex < index.getPageCount()) {
+                        result.pushString(index.loadPage(pdfDocument, pageIndex).text);
+                    } else {
+                        result.pushNull();
+                    }
+                }
+                index.commit(getReactApplicationContext());
+                promise.resolve(result);
+            } catch (Exception e) {
+                promise.reject("error", format("Get page text failed. path=%s", path), e);
+            } finally {
+                if (handle != null) {
+                    handle.release();
+                }
+            }
+        });
+    }
+
+    // Idle documents kept open in PdfDocumentCache for the next PdfView/loadFile of the same file.
+    @ReactMethod
+    public void setDocumentCacheSize(int maxDocuments) {
+        PdfDocumentCache.setMaxDocuments(maxDocuments);
+    }
+
+    // Released PdfViews kept for reuse by the next Pdf mounted, see PdfViewPool. 0 turns it off.
+    @ReactMethod
+    public void setViewPoolSize(final int maxViews) {
+        UiThreadUtil.runOnUiThread(() -> PdfViewPool.setMaxViews(maxViews));
+    }
+
+    /**
+     * Downloads url into path with resumable range requests, reporting progress through
+     * PdfDownloadProgress events {requestId, received, total}. A partial file left by a
+     * cancelled or failed download of the same path is resumed. trustAllCerts skips
+     * certificate and host name checks, like the trustAllCerts prop of the JS downloads.
+     */
+    @ReactMethod
+    public void downloadFile(final int requestId, final String url, final String path, final ReadableMap headers, final boolean trustAllCerts, final Promise promise) {
+        Map<String, String> requestHeaders = new HashMap<>();
+        if (headers != null) {
+            ReadableMapKeySetIterator iterator = headers.keySetIterator();
+            while (iterator.hasNextKey()) {
+                String key = iterator.nextKey();
+                requestHeaders.put(key, headers.getString(key));
+            }
+        }
+
+        PdfDownloader downloader = new PdfDownloader(url, requestHeaders, trustAllCerts, new File(path), new PdfDownloader.Listener() {
+            @Override
+            public void onProgress(long received, long total) {
+                WritableMap event = Arguments.createMap();
+                event.putInt("requestId", requestId);
+                event.putDouble("received", received);
+                event.putDouble("total", total);
+                getReactApplicationContext()
+                        .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                        .emit(DOWNLOAD_PROGRESS_EVENT, event);
+            }
+
+            @Override
+            public void onComplete(File file, boolean modified, String etag, String lastModified) {
+                removeDownload(requestId);
+                promise.resolve(file.getPath());
+            }
+
+            @Override
+            public void onError(Exception e, int status) {
+                removeDownload(requestId);
+                WritableMap userInfo = Arguments.createMap();
+                userInfo.putInt("status", status);
+                promise.reject("error", "DownloadFailed:" + url, e, userInfo);
+            }
+        });
+        // registered before it starts, a quick completion removes it again
+        synchronized (downloads) {
+            downloads.put(requestId, downloader);
+        }
+        downloader.start();
+    }
+
+    @ReactMethod
+    public void cancelDownload(int requestId) {
+        PdfDownloader downloader = removeDownload(requestId);
+        if (downloader != null) {
+            downloader.cancel();
+        }
+    }
+
+    private PdfDownloader removeDownload(int requestId) {
+        synchronized (downloads) {
+            return downloads.remove(requestId);
+        }
+    }
+
+    /**
+     * Streams path through the transformer registered with ViewFileTransformer into
+     * path + ".view" and resolves with that path. Rejects with E_NO_TRANSFORMER when the
+     * app didn't register one, JS then falls back to react-native-blob-util.
+     */
+    @ReactMethod
+    public void transformToViewFile(final String path, final Promise promise) {
+        if (!ViewFileTransformer.hasTransformer()) {
+            promise.reject("E_NO_TRANSFORMER", "No native file transformer set");
+            return;
+        }
+        transformExecutor.execute(() -> {
+            try {
+                File viewFile = ViewFileTransformer.transform(PdfiumHolder.getFile(path));
+                promise.resolve(viewFile.getPath());
+            } catch (Exception e) {
+                promise.reject("error", format("Transform pdf failed. path=%s", path), e);
+            }
+        });
+    }
+
+    @ReactMethod
+    public void releaseViewFile(final String path) {
+        transformExecutor.execute(() -> ViewFileTransformer.release(PdfiumHolder.getFile(path)));
+    }
+
+    /**
+     * Renders pages (1-based) no wider than maxWidth into "webp" or "png" files and resolves
+     * with their file:// uris in the same order, null for pages out of range. Thumbnails
+     * are cached on disk by document fingerprint, page and width.
+     */
+    @ReactMethod
+    public void renderThumbnails(final int requestId, final String path, final String password, final ReadableArray pages,
+                                 final int maxWidth, final String format, final Promise promise) {
+        int[] pageNumbers = new int[pages.size()];
+        for (int i = 0; i < pageNumbers.length; i++) {
+            pageNumbers[i] = pages.getInt(i);
+        }
+
+        PdfThumbnails.Request request = new PdfThumbnails.Request();
+        synchronized (thumbnailRequests) {
+            thumbnailRequests.put(requestId, request);
+        }
+        PdfThumbnails.render(getReactApplicationContext(), path, password, pageNumbers, maxWidth, format, request,
+                new PdfThumbnails.Callback() {
+                    @Override
+                    public void onComplete(String[] uris) {
+                        removeThumbnailRequest(requestId);
+                        WritableArray result = Arguments.createArray();
+                        for (String uri : uris) {
+                            if (uri != null) {
+                                result.pushString(uri);
+                            } else {
+                                result.pushNull();
+                            }
+                        }
+                        promise.resolve(result);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        removeThumbnailRequest(requestId);
+                        promise.reject("error", format("Render thumbnails failed. path=%s", path), e);
+                    }
+
+                    @Override
+                    public void onCancelled() {
+                        promise.reject("cancelled", "Thumbnail rendering cancelled");
+                    }
+                });
+    }
+
+    // The promise of a cancelled batch rejects with code "cancelled".
+    @ReactMethod
+    public void cancelThumbnails(int requestId) {
+        PdfThumbnails.Request request = removeThumbnailRequest(requestId);
+        if (request != null) {
+            request.cancel();
+        }
+    }
+
+    private PdfThumbnails.Request removeThumbnailRequest(int requestId) {
+        synchronized (thumbnailRequests) {
+            return thumbnailRequests.remove(requestId);
+        }
+    }
+
+    /**
+     * Renders pages (1-based) at dpi into "jpeg" or "png" files named page-N in outDir,
+     * reporting every written page as a PdfExportProgress event {requestId, page, uri,
+     * width, height, completed, total}. Resolves with {page, uri, width, height} per page in
+     * the requested order, null for pages out of range. options: {concurrency, quality}.
+     */
+    @ReactMethod
+    public void exportPages(final int requestId, final String path, final String password, final ReadableArray pages,
+                            final int dpi, final String format, final String outDir, final ReadableMap options,
+                            final Promise promise) {
+        int[] pageNumbers = new int[pages.size()];
+        for (int i = 0; i < pageNumbers.length; i++) {
+            pageNumbers[i] = pages.getInt(i);
+        }
+        int concurrency = options != null && options.hasKey("concurrency")
+                ? options.getInt("concurrency") : PdfPageExport.DEFAULT_CONCURRENCY;
+        int quality = options != null && options.hasKey("quality") ? options.getInt("quality") : 90;
+
+        PdfPageExport.Request request = new PdfPageExport.Request();
+        synchronized (exports) {
+            exports.put(requestId, request);
+        }
+        PdfPageExport.export(getReactApplicationContext(), path, password, pageNumbers,
+                dpi, format, quality, outDir, concurrency, request, new PdfPageExport.Listener() {
+                    @Override
+                    public void onPage(PdfPageExport.Page page, int completed, int total) {
+                        WritableMap event = createExportedPage(page);
+                        event.putInt("requestId", requestId);
+                        event.putInt("completed", completed);
+                        event.putInt("total", total);
+                        getReactApplicationContext()
+                                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                                .emit(EXPORT_PROGRESS_EVENT, event);
+                    }
+
+                    @Override
+                    public void onComplete(PdfPageExport.Page[] exported) {
+                        removeExport(requestId);
+                        WritableArray result = Arguments.createArray();
+                        for (PdfPageExport.Page page : exported) {
+                            if (page != null) {
+                                result.pushMap(createExportedPage(page));
+                            } else {
+                                result.pushNull();
+                            }
+                        }
+                        promise.resolve(result);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        removeExport(requestId);
+                        promise.reject("error", format("Export pages failed. path=%s", path), e);
+                    }
+
+                    @Override
+                    public void onCancelled() {
+                        promise.reject("cancelled", "Page export cancelled");
+                    }
+                });
+    }
+
+    private static WritableMap createExportedPage(PdfPageExport.Page page) {
+        WritableMap map = Arguments.createMap();
+        map.putInt("page", page.page);
+        map.putString("uri", page.uri);
+        map.putInt("width", page.width);
+        map.putInt("height", page.height);
+        return map;
+    }
+
+    // The promise of a cancelled export rejects with code "cancelled".
+    @ReactMethod
+    public void cancelExport(int requestId) {
+        PdfPageExport.Request request = removeExport(requestId);
+        if (request != null) {
+            request.cancel();
+        }
+    }
+
+    private PdfPageExport.Request removeExport(int requestId) {
+        synchronized (exports) {
+            return exports.remove(requestId);
+        }
+    }
+
+    /**
+     * Searches the text of every page, streaming each page's hits as PdfSearchResults events
+     * {requestId, page, hits: [{rects: [{left, top, right, bottom}], snippet}]} with rects as
+     * fractions of the page. Resolves with the number of hits. The extracted text is cached
+     * per document, options: {caseSensitive, maxResults}.
+     */
+    @ReactMethod
+    public void search(final int requestId, final String path, final String password, final String query,
+                       final ReadableMap options, final Promise promise) {
+        boolean caseSensitive = options != null && options.hasKey("caseSensitive") && options.getBoolean("caseSensitive");
+        int maxResults = options != null && options.hasKey("maxResults") ? options.getInt("maxResults") : 0;
+
+        PdfTextSearch.Request request = new PdfTextSearch.Request();
+        synchronized (searches) {
+            searches.put(requestId, request);
+        }
+        PdfTextSearch.search(getReactApplicationContext(), path, password, query,
+                caseSensitive, maxResults, request, new PdfTextSearch.Listener() {
+                    @Override
+                    public void onPageHits(int pageIndex, List<PdfTextSearch.Hit> hits) {
+                        WritableArray items = Arguments.createArray();
+                        for (PdfTextSearch.Hit hit : hits) {
+                            WritableArray rects = Arguments.createArray();
+                            for (int i = 0; i + 3 < hit.rects.length; i += 4) {
+                                WritableMap rect = Arguments.createMap();
+                                rect.putDouble("left", hit.rects[i]);
+                                rect.putDouble("top", hit.rects[i + 1]);
+                                rect.putDouble("right", hit.rects[i + 2]);
+                                rect.putDouble("bottom", hit.rects[i + 3]);
+                                rects.pushMap(rect);
+                            }
+                            WritableMap item = Arguments.createMap();
+                            item.putArray("rects", rects);
+                            item.putString("snippet", hit.snippet);
+                            items.pushMap(item);
+                        }
+                        WritableMap event = Arguments.createMap();
+                        event.putInt("requestId", requestId);
+                        event.putInt("page", pageIndex + 1);
+                        event.putArray("hits", items);
+                        getReactApplicationContext()
+                                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                                .emit(SEARCH_RESULTS_EVENT, event);
+                    }
+
+                    @Override
+                    public void onComplete(int totalHits) {
+                        removeSearch(requestId);
+                        promise.resolve(totalHits);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        removeSearch(requestId);
+                        promise.reject("error", format("Search failed. path=%s", path), e);
+                    }
+
+                    @Override
+                    public void onCancelled() {
+                        promise.reject("cancelled", "Search cancelled");
+                    }
+                });
+    }
+
+    // The promise of a cancelled search rejects with code "cancelled".
+    @ReactMethod
+    public void cancelSearch(int requestId) {
+        PdfTextSearch.Request request = removeSearch(requestId);
+        if (request != null) {
+            request.cancel();
+        }
+    }
+
+    private PdfTextSearch.Request removeSearch(int requestId) {
+        synchronized (searches) {
+            return searches.remove(requestId);
+        }
+    }
+
+    // Render pipeline instrumentation, see PdfMetrics. Off by default.
+    @ReactMethod
+    public void setMetricsEnabled(boolean enabled) {
+        PdfMetrics.setEnabled(enabled);
+    }
+
+    @ReactMethod
+    public void getMetrics(Promise promise) {
+        promise.resolve(PdfMetrics.snapshot());
+    }
+
+    @ReactMethod
+    public void resetMetrics() {
+        PdfMetrics.reset();
+    }
+
+    // Emits a PdfMetrics event with a snapshot every interval milliseconds while anything
+    // changed, 0 stops.
+    @ReactMethod
+    public void setMetricsInterval(final int interval) {
+        metricsHandler.post(() -> {
+            metricsHandler.removeCallbacks(reportMetrics);
+            metricsInterval = interval;
+            reportedMetricsVersion = -1;
+            if (interval > 0) {
+                metricsHandler.postDelayed(reportMetrics, interval);
+            }
+        });
+    }
+
+    // Required by NativeEventEmitter
+    @ReactMethod
+    public void addListener(String eventName) {
+    }
+
+    @ReactMethod
+    public void removeListeners(double count) {
+    }
+
+    public static PdfDocument getPdf(int index) {
+        synchronized (pdfDocRefs) {
+            if (index >= 0 && index < pdfDocRefs.size()) {
+                PdfDocumentCache.Handle handle = pdfDocRefs.get(index);
+                return handle != null ? handle.getDocument() : null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        metricsHandler.removeCallbacksAndMessages(null);
+        synchronized (searches) {
+            for (PdfTextSearch.Request request : searches.values()) {
+                request.cancel();
+            }
+            searches.clear();
+        }
+        synchronized (exports) {
+            for (PdfPageExport.Request request : exports.values()) {
+                request.cancel();
+            }
+            exports.clear();
+        }
+        synchronized (thumbnailRequests) {
+            for (PdfThumbnails.Request request : thumbnailRequests.values()) {
+                request.cancel();
+            }
+            thumbnailRequests.clear();
+        }
+        synchronized (downloads) {
+            for (PdfDownloader downloader : downloads.values()) {
+                downloader.cancel();
+            }
+            downloads.clear();
+        }
+        // release pdf docs
+        synchronized (pdfDocRefs) {
+            for (PdfDocumentCache.Handle handle : pdfDocRefs) {
+                if (handle != null) {
+                    handle.release();
+                }
+            }
+            pdfDocRefs.clear();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+
+import com.github.barteksc.pdfviewer.util.Constants;
+
+/**
+ * One bitmap budget for all PdfView instances. PDFView sizes its part cache from the
+ * static Constants.Cache.CACHE_SIZE (a number of parts), so the budget is converted to
+ * parts and split across the live views; a quarter of it is reserved for our own previews
+ * and pooled bitmaps.
+ *
+ * Also answers onTrimMemory: when the UI is hidden or memory runs low in the foreground
+ * views keep only what is visible. Documents are only let go of once the app is in the
+ * background (TRIM_MEMORY_BACKGROUND and above), they are reloaded when shown again.
+ * The pressure is over with the next load, a milder trim level or the UI shown again.
+ */
+public class PdfMemoryManager {
+
+    public static final int DEFAULT_CACHE_SIZE_MB = 32;
+
+    // what a view needs to cover one screen of parts
+    private static final int MIN_PARTS_PER_VIEW = 24;
+
+    // requested cacheSizeMB of every live view, main thread only
+    private static final Map<PdfView, Integer> views = new WeakHashMap<>();
+    private static volatile long budgetBytes = DEFAULT_CACHE_SIZE_MB * 1024L * 1024L;
+    private static boolean underPressure = false;
+    private static boolean callbacksRegistered = false;
+
+    private static final ComponentCallbacks2 callbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            trim(level);
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+
+        @Override
+        public void onLowMemory() {
+            trim(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+        }
+    };
+
+    public static void register(PdfView view, int cacheSizeMB) {
+        if (!callbacksRegistered) {
+            view.getContext().getApplicationContext().registerComponentCallbacks(callbacks);
+            callbacksRegistered = true;
+        }
+        views.put(view, cacheSizeMB > 0 ? cacheSizeMB : DEFAULT_CACHE_SIZE_MB);
+        // a trim that still holds comes again and sets it back
+        underPressure = false;
+        apply();
+    }
+
+    public static void unregister(PdfView view) {
+        if (views.remove(view) != null) {
+            apply();
+        }
+    }
+
+    // A view is on screen again after the UI was hidden.
+    public static void onVisible() {
+        endPressure();
+    }
+
+    private static void endPressure() {
+        if (underPressure) {
+            underPressure = false;
+            apply();
+        }
+    }
+
+    public static long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public static long getPreviewBudgetBytes() {
+        return budgetBytes / 4;
+    }
+
+    public static long getPoolBudgetBytes() {
+        return budgetBytes / 8;
+    }
+
+    private static void apply() {
+        int largest = DEFAULT_CACHE_SIZE_MB;
+        if (!views.isEmpty()) {
+            largest = 0;
+            for (int size : views.values()) {
+                largest = Math.max(largest, size);
+            }
+        }
+        budgetBytes = largest * 1024L * 1024L;
+
+        long partBytes = (long) (Constants.PART_SIZE * Constants.PART_SIZE * 4);
+        int parts = (int) (budgetBytes * 3 / 4 / partBytes / Math.max(1, views.size()));
+        Constants.Cache.CACHE_SIZE = underPressure ? MIN_PARTS_PER_VIEW : Math.max(MIN_PARTS_PER_VIEW, parts);
+    }
+
+    static void trim(int level) {
+        if (level < ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            endPressure();
+            return;
+        }
+        // UI_HIDDEN comes with every trip to the background and says nothing about memory,
+        // reparsing the documents on each return would cost more than it saves
+        boolean pressure = level != ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN;
+        boolean release = level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND;
+
+        PdfBitmapPool.clear();
+        if (pressure) {
+            PdfViewPool.clear();
+            underPressure = true;
+            apply();
+        }
+        for (PdfView view : new ArrayList<>(views.keySet())) {
+            view.trimMemory(release);
+        }
+        if (release || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            PdfDocumentCache.trim();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import io.legere.pdfiumandroid.PdfDocument;
+import io.legere.pdfiumandroid.PdfPage;
+
+import static java.lang.String.format;
+
+/**
+ * On-disk sidecar with what PdfManager.loadFile and getTableOfContents need from a
+ * document, which never changes for the same bytes: page count, per-page size and the
+ * outline. Entries are keyed by PdfFingerprint and written once, in the background, the
+ * first time one of those two had to open the document for it. Only the most recently
+ * used MAX_FILES entries are kept.
+ *
+ * Password protected documents are never indexed, their outline would end up on disk in
+ * clear text.
+ */
+public class PdfMetadataIndex {
+
+    private static final String TAG = "PdfMetadataIndex";
+    private static final String DIRECTORY = "rnpdf-metadata";
+    private static final int VERSION = 1;
+    private static final int MAX_FILES = 128;
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    public static class Metadata {
+        public final int pageCount;
+        public final float[] pageWidths;
+        public final float[] pageHeights;
+        public final JSONArray outline;
+
+        private Metadata(JSONObject json) throws JSONException {
+            JSONArray pages = json.getJSONArray("pages");
+            pageCount = json.getInt("pageCount");
+            pageWidths = new float[pageCount];
+            pageHeights = new float[pageCount];
+            for (int i = 0; i < pageCount; i++) {
+                JSONArray page = pages.getJSONArray(i);
+                pageWidths[i] = (float) page.getDouble(0);
+                pageHeights[i] = (float) page.getDouble(1);
+            }
+            outline = json.getJSONArray("outline");
+        }
+    }
+
+    public static Metadata read(Context context, String path, String password) {
+        if (password != null && !password.isEmpty()) {
+            return null;
+        }
+        try {
+            File file = getIndexFile(context, path);
+            if (file == null || !file.exists()) {
+                return null;
+            }
+            JSONObject json = new JSONObject(readText(file));
+            if (json.optInt("version") != VERSION) {
+                return null;
+            }
+            // keeps the most recently used files when trimming
+            file.setLastModified(System.currentTimeMillis());
+            return new Metadata(json);
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, format("unreadable metadata index for %s", path), e);
+            return null;
+        }
+    }
+
+    public static void writeAsync(final Context context, final String path, final String password) {
+        if (password != null && !password.isEmpty()) {
+            return;
+        }
+        final Context appContext = context.getApplicationContext();
+        writer.execute(() -> {
+            try {
+                File file = getIndexFile(appContext, path);
+                if (file == null || file.exists()) {
+                    return;
+                }
+                PdfDocumentCache.Handle handle = PdfDocumentCache.acquire(appContext, path, password);
+                JSONObject json;
+                try {
+                    json = collect(handle.getDocument());
+                } finally {
+                    handle.release();
+                }
+                writeText(file, json.toString());
+                trimFiles(file.getParentFile());
+            } catch (IOException | JSONException e) {
+                Log.w(TAG, format("failed to index %s", path), e);
+            }
+        });
+    }
+
+    private static JSONObject collect(PdfDocument pdfDocument) throws JSONException {
+        int pageCount = pdfDocument.getPageCount();
+        JSONArray pages = new JSONArray();
+        for (int i = 0; i < pageCount; i++) {
+            PdfPage pdfPage = pdfDocument.openPage(i);
+            try {
+                JSONArray page = new JSONArray();
+                page.put(pdfPage.getPageWidthPoint());
+                page.put(pdfPage.getPageHeightPoint());
+                pages.put(page);
+            } finally {
+                pdfPage.close();
+            }
+        }
+
+        JSONObject json = new JSONObject();
+        json.put("version", VERSION);
+        json.put("pageCount", pageCount);
+        json.put("pages", pages);
+        json.put("outline", toJson(pdfDocument.getTableOfContents()));
+        return json;
+    }
+
+    private static JSONArray toJson(List<PdfDocument.Bookmark> bookmarks) throws JSONException {
+        JSONArray items = new JSONArray();
+        for (PdfDocument.Bookmark bookmark : bookmarks) {
+            JSONObject item = new JSONObject();
+            item.put("title", bookmark.getTitle());
+            item.put("pageIdx", bookmark.getPageIdx());
+            item.put("children", toJson(bookmark.getChildren()));
+            items.put(item);
+        }
+        return items;
+    }
+
+    private static File getIndexFile(Context context, String path) throws IOException {
+        String fingerprint = PdfFingerprint.of(context, path);
+        if (fingerprint == null) {
+            return null;
+        }
+        File directory = new File(context.getCacheDir(), DIRECTORY);
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+        return new File(directory, fingerprint + ".json");
+    }
+
+    private static void trimFiles(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".json"));
+        if (files == null || files.length <= MAX_FILES) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (int i = MAX_FILES; i < files.length; i++) {
+            files[i].delete();
+        }
+    }
+
+    private static String readText(File file) throws IOException {
+        try (InputStream input = new FileInputStream(file)) {
+            byte[] bytes = new byte[(int) file.length()];
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = input.read(bytes, offset, bytes.length - offset);
+                if (read < 0) {
+                    break;
+                }
+                offset += read;
+            }
+            return new String(bytes, 0, offset, StandardCharsets.UTF_8);
+        }
+    }
+
+    // written to a temp file and renamed, so readers never see a half-written index
+    private static void writeText(File file, String text) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (OutputStream output = new FileOutputStream(temp)) {
+            output.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Unable to write " + file);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import android.os.Trace;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+/**
+ * Opt-in instrumentation of the render pipeline: latency histograms, counters and gauges,
+ * plus android.os.Trace sections for Perfetto/systrace. Everything is a no-op until
+ * setEnabled(true), so the calls can stay in hot paths.
+ *
+ * Histograms (milliseconds):
+ *   load         drawPdf until loadComplete
+ *   pageRender   full pages rendered by us (previews, thumbnails, RCTPdfPageView)
+ *   pageExport   one page of PdfManager.exportPages, rendered and written to disk
+ *   draw         PdfView.onDraw, PDFView drawing its parts included
+ *   callbacks    main thread time in PdfView's PDFView callbacks
+ *   textExtract  Pdfium text extraction of one page
+ * Counters: partsRendered, pool.hits, pool.misses, pool.evictions, previews.evictions,
+ * thumbnails.hits, thumbnails.misses, text.pagesExtracted, export.pages,
+ * opens.skipped/opens.discarded (PdfView opens made stale by a newer one), and
+ * viewPool.hits/viewPool.misses while PdfViewPool is on.
+ * Gauges (bytes): pool.bytes, previews.bytes.
+ *
+ * PDFView renders its parts on a private thread without hooks, so per-part latency isn't
+ * measurable from here; partsRendered counts them as they arrive on the main thread.
+ */
+public class PdfMetrics {
+
+    private static volatile boolean enabled = false;
+
+    // guarded by the class
+    private static final Map<String, Histogram> histograms = new TreeMap<>();
+    private static final Map<String, Long> counters = new TreeMap<>();
+    private static final Map<String, Long> gauges = new TreeMap<>();
+    private static long version = 0;
+
+    /**
+     * Latency histogram with power-of-two millisecond buckets: [0,1), [1,2), [2,4) ...
+     * [4096, inf). Percentiles are the upper bound of the bucket they fall into, capped
+     * at the maximum seen.
+     */
+    public static class Histogram {
+        static final int BUCKETS = 14;
+
+        private final long[] buckets = new long[BUCKETS];
+        private long count = 0;
+        private double sumMs = 0;
+        private double maxMs = 0;
+
+        public void record(double ms) {
+            int bucket = 0;
+            while (bucket < BUCKETS - 1 && ms >= (1L << bucket)) {
+                bucket++;
+            }
+            buckets[bucket]++;
+            count++;
+            sumMs += ms;
+            maxMs = Math.max(maxMs, ms);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanMs() {
+            return count > 0 ? sumMs / count : 0;
+        }
+
+        public double getMaxMs() {
+            return maxMs;
+        }
+
+        public double getPercentileMs(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return i < BUCKETS - 1 ? Math.min(1L << i, maxMs) : maxMs;
+                }
+            }
+            return maxMs;
+        }
+    }
+
+    public static void setEnabled(boolean enabled) {
+        PdfMetrics.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static synchronized void reset() {
+        histograms.clear();
+        counters.clear();
+        version++;
+    }
+
+    /**
+     * Opens a trace section and starts a timer.
+     *
+     * @return the start time for endSection, 0 when disabled
+     */
+    public static long beginSection(String name) {
+        if (!enabled) {
+            return 0;
+        }
+        Trace.beginSection(name);
+        return System.nanoTime();
+    }
+
+    // Closes the section opened by beginSection and records its duration in histogram.
+    public static void endSection(String histogram, long start) {
+        if (start == 0) {
+            return;
+        }
+        Trace.endSection();
+        record(histogram, (System.nanoTime() - start) / 1e6);
+    }
+
+    // start time for an interval that spans callbacks, e.g. drawPdf to loadComplete
+    public static long now() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public static void recordSince(String histogram, long start) {
+        if (start != 0 && enabled) {
+            record(histogram, (System.nanoTime() - start) / 1e6);
+        }
+    }
+
+    public static synchronized void record(String histogram, double ms) {
+        if (!enabled) {
+            return;
+        }
+        Histogram h = histograms.get(histogram);
+        if (h == null) {
+            h = new Histogram();
+            histograms.put(histogram, h);
+        }
+        h.record(ms);
+        version++;
+    }
+
+    public static void increment(String counter) {
+        add(counter, 1);
+    }
+
+    public static synchronized void add(String counter, long delta) {
+        if (!enabled) {
+            return;
+        }
+        Long value = counters.get(counter);
+        counters.put(counter, (value != null ? value : 0) + delta);
+        version++;
+    }
+
+    // Gauges are kept up to date even while disabled, they describe state rather than events.
+    public static synchronized void setGauge(String gauge, long value) {
+        Long previous = gauges.put(gauge, value);
+        if (previous == null || previous != value) {
+            version++;
+        }
+    }
+
+    // changes whenever anything was recorded, lets periodic reporting skip idle intervals
+    public static synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * {enabled, histograms: {name: {count, meanMs, p50Ms, p90Ms, p99Ms, maxMs}},
+     * counters: {name: value}, gauges: {name: value}}
+     */
+    public static synchronized WritableMap snapshot() {
+        WritableMap histogramMap = Arguments.createMap();
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram h = entry.getValue();
+            WritableMap item = Arguments.createMap();
+            item.putDouble("count", h.getCount());
+            item.putDouble("meanMs", h.getMeanMs());
+            item.putDouble("p50Ms", h.getPercentileMs(50));
+            item.putDouble("p90Ms", h.getPercentileMs(90));
+            item.putDouble("p99Ms", h.getPercentileMs(99));
+            item.putDouble("maxMs", h.getMaxMs());
+            histogramMap.putMap(entry.getKey(), item);
+        }
+        WritableMap counterMap = Arguments.createMap();
+        for (Map.Entry<String, Long> entry : counters.entrySet()) {
+            counterMap.putDouble(entry.getKey(), entry.getValue());
+        }
+        WritableMap gaugeMap = Arguments.createMap();
+        for (Map.Entry<String, Long> entry : gauges.entrySet()) {
+            gaugeMap.putDouble(entry.getKey(), entry.getValue());
+        }
+
+        WritableMap result = Arguments.createMap();
+        result.putBoolean("enabled", enabled);
+        result.putMap("histograms", histogramMap);
+        result.putMap("counters", counterMap);
+        result.putMap("gauges", gaugeMap);
+        return result;
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import io.legere.pdfiumandroid.PdfDocument;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+/**
+ * Flattened table of contents of one document. Every bookmark gets an id (its index in
+ * the flattened list) so JS can page through the outline one level at a time instead of
+ * receiving the whole tree.
+ */
+public class PdfOutline {
+    public static final int ROOT = -1;
+
+    private static final int MAX_CACHED_OUTLINES = 8;
+
+    // keyed by PdfDocumentCache key or "meta:" + fingerprint, eldest first
+    private static final LinkedHashMap<String, PdfOutline> cache = new LinkedHashMap<String, PdfOutline>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PdfOutline> eldest) {
+            return size() > MAX_CACHED_OUTLINES;
+        }
+    };
+
+    private final List<String> titles = new ArrayList<>();
+    private final List<Long> pageIndexes = new ArrayList<>();
+    private final List<List<Integer>> children = new ArrayList<>();
+    private final List<Integer> roots = new ArrayList<>();
+
+    private PdfOutline(List<PdfDocument.Bookmark> bookmarks) {
+        add(bookmarks, roots);
+    }
+
+    private PdfOutline(JSONArray bookmarks) throws JSONException {
+        add(bookmarks, roots);
+    }
+
+    public static PdfOutline get(PdfDocumentCache.Handle handle) {
+        synchronized (cache) {
+            PdfOutline outline = cache.get(handle.getKey());
+            if (outline != null) {
+                return outline;
+            }
+        }
+        PdfOutline outline = new PdfOutline(handle.getDocument().getTableOfContents());
+        synchronized (cache) {
+            cache.put(handle.getKey(), outline);
+        }
+        return outline;
+    }
+
+    /**
+     * Outline rebuilt from a PdfMetadataIndex entry, without opening the document.
+     */
+    public static PdfOutline get(String fingerprint, PdfMetadataIndex.Metadata metadata) throws JSONException {
+        String key = "meta:" + fingerprint;
+        synchronized (cache) {
+            PdfOutline outline = cache.get(key);
+            if (outline != null) {
+                return outline;
+            }
+        }
+        PdfOutline outline = new PdfOutline(metadata.outline);
+        synchronized (cache) {
+            cache.put(key, outline);
+        }
+        return outline;
+    }
+
+    private void add(JSONArray bookmarks, List<Integer> ids) throws JSONException {
+        for (int i = 0; i < bookmarks.length(); i++) {
+            JSONObject bookmark = bookmarks.getJSONObject(i);
+            int id = titles.size();
+            List<Integer> childIds = new ArrayList<>();
+            titles.add(bookmark.optString("title"));
+            pageIndexes.add(bookmark.getLong("pageIdx"));
+            children.add(childIds);
+            ids.add(id);
+            add(bookmark.getJSONArray("children"), childIds);
+        }
+    }
+
+    private void add(List<PdfDocument.Bookmark> bookmarks, List<Integer> ids) {
+        for (PdfDocument.Bookmark bookmark : bookmarks) {
+            int id = titles.size();
+            List<Integer> childIds = new ArrayList<>();
+            titles.add(bookmark.getTitle());
+            pageIndexes.add(bookmark.getPageIdx());
+            children.add(childIds);
+            ids.add(id);
+            add(bookmark.getChildren(), childIds);
+        }
+    }
+
+    public int size() {
+        return titles.size();
+    }
+
+    /**
+     * Bookmarks directly under parentId (ROOT for the top level) as
+     * [{id, title, pageIdx, childCount}], or null if parentId is unknown.
+     */
+    public WritableArray getChildren(int parentId) {
+        List<Integer> ids;
+        if (parentId == ROOT) {
+            ids = roots;
+        } else if (parentId >= 0 && parentId < children.size()) {
+            ids = children.get(parentId);
+        } else {
+            return null;
+        }
+
+        WritableArray items = Arguments.createArray();
+        for (int id : ids) {
+            WritableMap item = Arguments.createMap();
+            item.putInt("id", id);
+            item.putString("title", titles.get(id));
+            item.putDouble("pageIdx", pageIndexes.get(id));
+            item.putInt("childCount", children.get(id).size());
+            items.pushMap(item);
+        }
+        return items;
+    }
+}
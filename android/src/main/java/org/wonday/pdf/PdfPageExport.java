@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.net.Uri;
+import android.util.Log;
+
+import io.legere.pdfiumandroid.PdfDocument;
+import io.legere.pdfiumandroid.PdfPage;
+
+import static java.lang.String.format;
+
+/**
+ * Exports pages as image files at a given resolution, for sharing and print previews.
+ * The document is opened once per request and shared by up to concurrency workers, each
+ * taking the next page, rendering it, writing it out and handing its bitmap back before
+ * taking another. At most one bitmap per worker is alive, whatever the number of pages,
+ * and the workers of a request split MAX_PIXELS between them. A page requested more than
+ * once is exported once.
+ */
+public class PdfPageExport {
+
+    private static final String TAG = "PdfPageExport";
+
+    public static final int DEFAULT_CONCURRENCY = 2;
+    public static final int MAX_CONCURRENCY = 4;
+
+    // 64 MB of ARGB bitmaps per request, larger pages are exported at a lower resolution
+    static final long MAX_PIXELS = 16L * 1024 * 1024;
+
+    // Pdfium renders under a global lock, the extra workers overlap compression and disk writes.
+    private static final ExecutorService pageExecutor = Executors.newFixedThreadPool(MAX_CONCURRENCY);
+    private static final ExecutorService openExecutor = Executors.newSingleThreadExecutor();
+
+    public static class Page {
+        // 1-based
+        public final int page;
+        public final String uri;
+        public final int width;
+        public final int height;
+
+        Page(int page, String uri, int width, int height) {
+            this.page = page;
+            this.uri = uri;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    public interface Listener {
+        // called from worker threads as every page is written, completed counts pages done so far
+        void onPage(Page page, int completed, int total);
+
+        // pages[i] is the export of the i-th requested page, or null for pages out of range
+        void onComplete(Page[] pages);
+
+        void onError(Exception e);
+
+        void onCancelled();
+    }
+
+    // Workers stop before their next page, files already written stay in outDir.
+    public static class Request {
+        private volatile boolean cancelled;
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * @param pages 1-based page numbers
+     * @param format "jpeg" or "png"
+     * @param quality jpeg quality 0-100
+     * @param concurrency pages rendered at a time, clamped to 1..MAX_CONCURRENCY
+     */
+    public static void export(final Context context, final String path, final String password, final int[] pages,
+                              final int dpi, final String format, final int quality, final String outDir,
+                              final int concurrency, final Request request, final Listener listener) {
+        openExecutor.execute(() -> {
+            if (request.cancelled) {
+                listener.onCancelled();
+                return;
+            }
+            final PdfDocumentCache.Handle handle;
+            final File directory;
+            try {
+                if (dpi <= 0) {
+                    throw new IllegalArgumentException("dpi must be positive, got " + dpi);
+                }
+                directory = PdfiumHolder.getFile(outDir);
+                if (!directory.exists() && !directory.mkdirs()) {
+                    throw new IOException("Unable to create " + directory);
+                }
+                handle = PdfDocumentCache.acquire(context, path, password);
+            } catch (Exception e) {
+                listener.onError(e);
+                return;
+            }
+
+            final boolean png = "png".equals(format);
+            final int pageCount = handle.getDocument().getPageCount();
+            // two workers on the same page would write the same temp file
+            final int[] distinct = distinct(pages);
+            final Page[] exported = new Page[distinct.length];
+            final AtomicInteger next = new AtomicInteger();
+            final AtomicInteger completed = new AtomicInteger();
+            final int workers = Math.max(1, Math.min(Math.min(concurrency, MAX_CONCURRENCY), distinct.length));
+            final long maxPixels = MAX_PIXELS / workers;
+            final AtomicInteger remaining = new AtomicInteger(workers);
+            final Exception[] failure = new Exception[1];
+            final Runnable worker = () -> {
+                try {
+                    int index;
+                    while (!request.cancelled && (index = next.getAndIncrement()) < distinct.length) {
+                        int pageIndex = distinct[index] - 1;
+                        if (pageIndex >= 0 && pageIndex < pageCount) {
+                            File file = new File(directory, format("page-%d.%s", distinct[index], png ? "png" : "jpg"));
+                            try {
+                                exported[index] = exportPage(handle.getDocument(), pageIndex, dpi, maxPixels, png, quality, file);
+                            } catch (OutOfMemoryError e) {
+                                throw new IOException(format("Not enough memory to export page %d", distinct[index]), e);
+                            }
+                            PdfMetrics.increment("export.pages");
+                        }
+                        int done = completed.incrementAndGet();
+                        if (exported[index] != null && !request.cancelled) {
+                            listener.onPage(exported[index], done, distinct.length);
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    Log.e(TAG, format("export of %s failed", path), e);
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                    request.cancel();
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        handle.release();
+                        if (failure[0] != null) {
+                            listener.onError(failure[0]);
+                        } else if (request.cancelled) {
+                            listener.onCancelled();
+                        } else {
+                            listener.onComplete(inRequestOrder(pages, distinct, exported));
+                        }
+                    }
+                }
+            };
+            for (int i = 0; i < workers; i++) {
+                pageExecutor.execute(worker);
+            }
+        });
+    }
+
+    // pages without repeats, in the order first requested
+    static int[] distinct(int[] pages) {
+        Set<Integer> seen = new LinkedHashSet<>();
+        for (int page : pages) {
+            seen.add(page);
+        }
+        int[] distinct = new int[seen.size()];
+        int i = 0;
+        for (int page : seen) {
+            distinct[i++] = page;
+        }
+        return distinct;
+    }
+
+    // the export of every requested page, repeats included
+    private static Page[] inRequestOrder(int[] pages, int[] distinct, Page[] exported) {
+        Map<Integer, Page> byPage = new HashMap<>();
+        for (int i = 0; i < distinct.length; i++) {
+            byPage.put(distinct[i], exported[i]);
+        }
+        Page[] result = new Page[pages.length];
+        for (int i = 0; i < pages.length; i++) {
+            result[i] = byPage.get(pages[i]);
+        }
+        return result;
+    }
+
+    private static Page exportPage(PdfDocument pdfDocument, int pageIndex, int dpi, long maxPixels, boolean png,
+                                   int quality, File file) throws IOException {
+        Bitmap bitmap = null;
+        long section = PdfMetrics.beginSection("PdfPageExport.render");
+        PdfPage pdfPage = null;
+        try {
+            pdfPage = pdfDocument.openPage(pageIndex);
+            int[] size = getPixelSize(pdfPage.getPageWidthPoint(), pdfPage.getPageHeightPoint(), dpi, maxPixels);
+            bitmap = PdfBitmapPool.get(size[0], size[1], Bitmap.Config.ARGB_8888);
+            bitmap.eraseColor(Color.WHITE);
+            pdfPage.renderPageBitmap(bitmap, 0, 0, size[0], size[1], true, false);
+
+            // written next to the target and renamed, readers never see half a file
+            File temp = new File(file.getPath() + ".tmp");
+            try (OutputStream output = new FileOutputStream(temp)) {
+                bitmap.compress(png ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG,
+                        Math.max(0, Math.min(quality, 100)), output);
+            }
+            if (!temp.renameTo(file)) {
+                temp.delete();
+                throw new IOException("Unable to write " + file);
+            }
+            return new Page(pageIndex + 1, Uri.fromFile(file).toString(), size[0], size[1]);
+        } finally {
+            if (pdfPage != null) {
+                pdfPage.close();
+            }
+            // bitmaps over the pool budget are recycled right away
+            PdfBitmapPool.put(bitmap);
+            PdfMetrics.endSection("pageExport", section);
+        }
+    }
+
+    /**
+     * Pixel size of a page at dpi (PDF points are 1/72 inch), scaled down to maxPixels.
+     */
+    static int[] getPixelSize(float widthPoints, float heightPoints, int dpi, long maxPixels) {
+        double scale = dpi / 72.0;
+        double area = widthPoints * scale * heightPoints * scale;
+        if (area > maxPixels) {
+            scale *= Math.sqrt(maxPixels / area);
+        }
+        int width = Math.max(1, (int) Math.round(widthPoints * scale));
+        int height = Math.max(1, (int) Math.round(heightPoints * scale));
+        return new int[] {width, height};
+    }
+}
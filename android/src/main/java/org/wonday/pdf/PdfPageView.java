@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.util.Log;
+import android.view.View;
+
+import io.legere.pdfiumandroid.PdfDocument;
+import io.legere.pdfiumandroid.PdfPage;
+
+import static java.lang.String.format;
+
+/**
+ * Renders a single page of a document opened by PdfManagerModule.loadFile into a bitmap,
+ * aspect-fit and centered like RNPDFPdfPageView on iOS. Rendering happens on a background
+ * thread and the bitmap is released when the view leaves the window, so a FlatList of
+ * these views only keeps bitmaps for the rows it currently has mounted.
+ */
+public class PdfPageView extends View {
+
+    private static final ExecutorService renderExecutor = Executors.newFixedThreadPool(2);
+
+    private int fileNo = -1;
+    private int page = 1;               // start from 1
+
+    private Bitmap bitmap;
+    private final Rect bitmapRect = new Rect();
+
+    // bumped whenever the rendered content becomes stale, results of older renders are dropped
+    private int renderGeneration = 0;
+    private Future<?> pendingRender;
+
+    public PdfPageView(Context context) {
+        super(context);
+        setBackgroundColor(Color.WHITE);
+    }
+
+    public void setFileNo(int fileNo) {
+        if (this.fileNo != fileNo) {
+            this.fileNo = fileNo;
+            invalidateBitmap();
+        }
+    }
+
+    // page start from 1
+    public void setPage(int page) {
+        if (this.page != page) {
+            this.page = page;
+            invalidateBitmap();
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        invalidateBitmap();
+        renderPage();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        renderPage();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        invalidateBitmap();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (bitmap != null && !bitmap.isRecycled()) {
+            canvas.drawBitmap(bitmap, null, bitmapRect, null);
+        }
+    }
+
+    private void invalidateBitmap() {
+        renderGeneration++;
+        if (pendingRender != null) {
+            pendingRender.cancel(false);
+            pendingRender = null;
+        }
+        if (bitmap != null) {
+            PdfBitmapPool.put(bitmap);
+            bitmap = null;
+            invalidate();
+        }
+    }
+
+    public void renderPage() {
+        final int viewWidth = getWidth();
+        final int viewHeight = getHeight();
+        if (bitmap != null || pendingRender != null || fileNo < 0 || viewWidth <= 0 || viewHeight <= 0 || !isAttachedToWindow()) {
+            return;
+        }
+
+        final int generation = renderGeneration;
+        final int fileNo = this.fileNo;
+        final int pageIndex = this.page - 1;
+
+        pendingRender = renderExecutor.submit(() -> {
+            Bitmap rendered = null;
+            try {
+                rendered = render(fileNo, pageIndex, viewWidth, viewHeight);
+            } finally {
+                // also when nothing was rendered, so a later renderPage can try again
+                final Bitmap result = rendered;
+                post(() -> onRenderDone(generation, result));
+            }
+        });
+    }
+
+    // the page aspect fit into viewWidth x viewHeight, null when it can't be rendered
+    private static Bitmap render(int fileNo, int pageIndex, int viewWidth, int viewHeight) {
+        PdfDocument pdfDocument = PdfManagerModule.getPdf(fileNo);
+        if (pdfDocument == null || pageIndex < 0 || pageIndex >= pdfDocument.getPageCount()) {
+            return null;
+        }
+
+        long section = PdfMetrics.beginSection("PdfPageView.render");
+        PdfPage pdfPage = null;
+        Bitmap rendered = null;
+        try {
+            pdfPage = pdfDocument.openPage(pageIndex);
+            float pageWidth = pdfPage.getPageWidthPoint();
+            float pageHeight = pdfPage.getPageHeightPoint();
+            if (pageWidth <= 0 || pageHeight <= 0) {
+                return null;
+            }
+
+            // aspect fit, same as CAPdfLayer on iOS
+            float scale = Math.min(viewWidth / pageWidth, viewHeight / pageHeight);
+            int width = Math.max(1, Math.round(pageWidth * scale));
+            int height = Math.max(1, Math.round(pageHeight * scale));
+
+            rendered = PdfBitmapPool.get(width, height, Bitmap.Config.ARGB_8888);
+            rendered.eraseColor(Color.WHITE);
+            pdfPage.renderPageBitmap(rendered, 0, 0, width, height, true, false);
+            return rendered;
+        } catch (Exception e) {
+            Log.e("PdfPageView", format("render page %d of file %d failed", pageIndex + 1, fileNo), e);
+            if (rendered != null) {
+                PdfBitmapPool.put(rendered);
+            }
+            return null;
+        } finally {
+            if (pdfPage != null) {
+                pdfPage.close();
+            }
+            PdfMetrics.endSection("pageRender", section);
+        }
+    }
+
+    private void onRenderDone(int generation, Bitmap rendered) {
+        if (generation != renderGeneration) {
+            if (rendered != null) {
+                PdfBitmapPool.put(rendered);
+            }
+            return;
+        }
+        pendingRender = null;
+        if (rendered == null) {
+            return;
+        }
+        bitmap = rendered;
+        int left = (getWidth() - rendered.getWidth()) / 2;
+        int top = (getHeight() - rendered.getHeight()) / 2;
+        bitmapRect.set(left, top, left + rendered.getWidth(), top + rendered.getHeight());
+        invalidate();
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import androidx.annotation.NonNull;
+
+import com.facebook.react.uimanager.SimpleViewManager;
+import com.facebook.react.uimanager.ThemedReactContext;
+import com.facebook.react.uimanager.annotations.ReactProp;
+
+public class PdfPageViewManager extends SimpleViewManager<PdfPageView> {
+    public static final String REACT_CLASS = "RCTPdfPageView";
+
+    @NonNull
+    @Override
+    public String getName() {
+        return REACT_CLASS;
+    }
+
+    @NonNull
+    @Override
+    public PdfPageView createViewInstance(@NonNull ThemedReactContext context) {
+        return new PdfPageView(context);
+    }
+
+    @ReactProp(name = "fileNo", defaultInt = -1)
+    public void setFileNo(PdfPageView view, int fileNo) {
+        view.setFileNo(fileNo);
+    }
+
+    // page start from 1
+    @ReactProp(name = "page", defaultInt = 1)
+    public void setPage(PdfPageView view, int page) {
+        view.setPage(page);
+    }
+
+    @Override
+    protected void onAfterUpdateTransaction(@NonNull PdfPageView view) {
+        super.onAfterUpdateTransaction(view);
+        view.renderPage();
+    }
+}
@@ -0,0 +1,515 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import android.content.Context;
+import android.graphics.Point;
+import android.graphics.RectF;
+import android.util.Log;
+import android.util.LruCache;
+
+import io.legere.pdfiumandroid.PdfDocument;
+import io.legere.pdfiumandroid.PdfPage;
+import io.legere.pdfiumandroid.PdfTextPage;
+
+import static java.lang.String.format;
+
+/**
+ * Text of every page with a box per character, extracted with Pdfium once per document.
+ * Indexes live in memory for the last few documents and, once every page has been read,
+ * on disk under the PdfFingerprint, so searching the same bytes again never goes back to
+ * Pdfium. A partially read index (cancelled search) stays in memory and is completed by
+ * the next search.
+ *
+ * Boxes are stored as fractions of the displayed page (rotation and crop box applied,
+ * origin top left) scaled to 0..65535, which is also what search hits and PdfView
+ * highlights use.
+ *
+ * Like PdfMetadataIndex, password protected documents are never written to disk.
+ */
+public class PdfTextIndex {
+
+    private static final String TAG = "PdfTextIndex";
+    private static final String DIRECTORY = "rnpdf-text";
+    private static final int MAGIC = 0x52505458;
+    private static final int VERSION = 1;
+    private static final int MAX_FILES = 32;
+    private static final int UNIT = 65535;
+
+    private static final LruCache<String, PdfTextIndex> memory = new LruCache<String, PdfTextIndex>(16 * 1024 * 1024) {
+        @Override
+        protected int sizeOf(String key, PdfTextIndex index) {
+            return index.accountedBytes;
+        }
+    };
+
+    public static class Page {
+        public final String text;
+        // left, top, right, bottom per character; all zero for characters without a box
+        final char[] boxes;
+
+        // text with whitespace runs collapsed into one space, and where each of its
+        // characters came from in text
+        private String collapsed;
+        private String folded;
+        private int[] origin;
+
+        Page(String text, char[] boxes) {
+            this.text = text;
+            this.boxes = boxes;
+        }
+
+        private synchronized void collapse() {
+            if (collapsed != null) {
+                return;
+            }
+            StringBuilder builder = new StringBuilder(text.length());
+            int[] positions = new int[text.length()];
+            boolean space = true;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                    if (!space) {
+                        positions[builder.length()] = i;
+                        builder.append(' ');
+                        space = true;
+                    }
+                } else {
+                    positions[builder.length()] = i;
+                    builder.append(c);
+                    space = false;
+                }
+            }
+            origin = Arrays.copyOf(positions, builder.length());
+            collapsed = builder.toString();
+            folded = fold(collapsed);
+        }
+
+        /**
+         * @param query already normalized with normalizeQuery
+         * @return up to limit matches, each as {start, end} character offsets into text
+         */
+        public List<int[]> find(String query, boolean caseSensitive, int limit) {
+            collapse();
+            List<int[]> matches = new ArrayList<>();
+            if (query.isEmpty()) {
+                return matches;
+            }
+            String haystack = caseSensitive ? collapsed : folded;
+            int from = 0;
+            while (matches.size() < limit) {
+                int start = haystack.indexOf(query, from);
+                if (start < 0) {
+                    break;
+                }
+                int end = start + query.length();
+                matches.add(new int[] {origin[start], origin[end - 1] + 1});
+                from = end;
+            }
+            return matches;
+        }
+
+        // text around [start, end) on one line, at most radius characters either side
+        public String snippet(int start, int end, int radius) {
+            int from = Math.max(0, start - radius);
+            int to = Math.min(text.length(), end + radius);
+            return text.substring(from, to).replaceAll("\\s+", " ").trim();
+        }
+
+        /**
+         * One rectangle per line the characters [start, end) are on, as fractions of the page:
+         * left, top, right, bottom for each.
+         */
+        public float[] rects(int start, int end) {
+            return mergeBoxes(boxes, start, end);
+        }
+
+        /**
+         * Character under x, y (fractions of the page), or the closest one within slop,
+         * -1 if there is none.
+         */
+        public int findChar(float x, float y, float slop) {
+            return findBox(boxes, x * UNIT, y * UNIT, slop * UNIT);
+        }
+
+        int getByteCount() {
+            return text.length() * 2 + boxes.length * 2 + (collapsed != null ? text.length() * 8 : 0);
+        }
+    }
+
+    private final String key;
+    private final Page[] pages;
+    private final boolean persistent;
+    // size the memory cache knows about, only updated while the index is out of it
+    private int accountedBytes;
+
+    private PdfTextIndex(String key, int pageCount, boolean persistent) {
+        this.key = key;
+        this.pages = new Page[pageCount];
+        this.persistent = persistent;
+    }
+
+    /**
+     * Key of a document's index: its fingerprint, or for password protected documents and
+     * sources that can't be fingerprinted a key that only lives in memory.
+     */
+    public static String getKey(Context context, String path, String password) throws IOException {
+        String fingerprint = password == null || password.isEmpty() ? PdfFingerprint.of(context, path) : null;
+        return fingerprint != null ? fingerprint : format("tmp-%08x", (path + '\0' + password).hashCode());
+    }
+
+    // whether an index under key may be read from and written to disk
+    public static boolean isPersistent(String key) {
+        return !key.startsWith("tmp-");
+    }
+
+    /**
+     * The index kept for key, from memory or disk, or a new empty one that is remembered
+     * right away so concurrent searches of the same document share it.
+     *
+     * @param persistent whether the index may be read from and written to disk
+     */
+    public static PdfTextIndex obtain(Context context, String key, int pageCount, boolean persistent) {
+        synchronized (memory) {
+            PdfTextIndex index = memory.get(key);
+            if (index != null && index.pages.length == pageCount) {
+                return index;
+            }
+        }
+        PdfTextIndex index = persistent ? readFile(context, key, pageCount) : null;
+        if (index == null) {
+            index = new PdfTextIndex(key, pageCount, persistent);
+        }
+        synchronized (memory) {
+            PdfTextIndex existing = memory.get(key);
+            if (existing != null && existing.pages.length == pageCount) {
+                return existing;
+            }
+            index.accountedBytes = index.getByteCount();
+            memory.put(key, index);
+        }
+        return index;
+    }
+
+    // Whether a complete index for key is available without opening the document.
+    public static PdfTextIndex peek(Context context, String key, boolean persistent) {
+        synchronized (memory) {
+            PdfTextIndex index = memory.get(key);
+            if (index != null) {
+                return index.isComplete() ? index : null;
+            }
+        }
+        PdfTextIndex index = persistent ? readFile(context, key, -1) : null;
+        if (index != null) {
+            index.accountedBytes = index.getByteCount();
+            synchronized (memory) {
+                memory.put(key, index);
+            }
+        }
+        return index;
+    }
+
+    public static void clearMemory() {
+        synchronized (memory) {
+            memory.evictAll();
+        }
+    }
+
+    public int getPageCount() {
+        return pages.length;
+    }
+
+    public synchronized Page getPage(int pageIndex) {
+        return pages[pageIndex];
+    }
+
+    public synchronized void setPage(int pageIndex, Page page) {
+        pages[pageIndex] = page;
+    }
+
+    // The page's text, extracted now if it hasn't been yet. Call off the UI thread.
+    public Page loadPage(PdfDocument pdfDocument, int pageIndex) {
+        Page page = getPage(pageIndex);
+        if (page == null) {
+            page = extract(pdfDocument, pageIndex);
+            setPage(pageIndex, page);
+        }
+        return page;
+    }
+
+    public synchronized boolean isComplete() {
+        for (Page page : pages) {
+            if (page == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized int getByteCount() {
+        int bytes = 64;
+        for (Page page : pages) {
+            if (page != null) {
+                bytes += page.getByteCount();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Re-accounts the memory taken by the pages added since obtain, and writes complete
+     * persistent indexes to disk if they aren't there yet. Call off the UI thread.
+     */
+    public void commit(Context context) {
+        synchronized (memory) {
+            if (memory.get(key) == this) {
+                memory.remove(key);
+                accountedBytes = getByteCount();
+                memory.put(key, this);
+            }
+        }
+        if (!persistent || !isComplete()) {
+            return;
+        }
+        File directory = new File(context.getCacheDir(), DIRECTORY);
+        File file = new File(directory, key + ".bin");
+        if (file.exists()) {
+            return;
+        }
+        try {
+            writeFile(directory, file);
+        } catch (IOException e) {
+            Log.w(TAG, format("failed to write text index %s", key), e);
+        }
+    }
+
+    private void writeFile(File directory, File file) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try (OutputStream output = new FileOutputStream(temp)) {
+            ByteBuffer header = ByteBuffer.allocate(12);
+            header.putInt(MAGIC).putInt(VERSION).putInt(pages.length);
+            output.write(header.array());
+            for (Page page : pages) {
+                ByteBuffer buffer = ByteBuffer.allocate(4 + page.text.length() * 2 + page.boxes.length * 2);
+                buffer.putInt(page.text.length());
+                buffer.asCharBuffer().put(page.text).put(page.boxes);
+                output.write(buffer.array());
+            }
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Unable to rename " + temp);
+        }
+        trimFiles(directory);
+    }
+
+    private static PdfTextIndex readFile(Context context, String key, int pageCount) {
+        File file = new File(new File(context.getCacheDir(), DIRECTORY), key + ".bin");
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            byte[] bytes;
+            try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+                bytes = new byte[(int) input.length()];
+                input.readFully(bytes);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            int count = buffer.getInt();
+            if (pageCount >= 0 && count != pageCount) {
+                return null;
+            }
+            PdfTextIndex index = new PdfTextIndex(key, count, true);
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getInt();
+                char[] text = new char[length];
+                char[] boxes = new char[length * 4];
+                buffer.asCharBuffer().get(text).get(boxes);
+                buffer.position(buffer.position() + length * 10);
+                index.pages[i] = new Page(new String(text), boxes);
+            }
+            // keeps the most recently used files when trimming
+            file.setLastModified(System.currentTimeMillis());
+            return index;
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, format("unreadable text index %s", key), e);
+            file.delete();
+            return null;
+        }
+    }
+
+    private static void trimFiles(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".bin"));
+        if (files == null || files.length <= MAX_FILES) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (int i = MAX_FILES; i < files.length; i++) {
+            files[i].delete();
+        }
+    }
+
+    /**
+     * Reads the text and character boxes of one page. Pdfium reports boxes in page space,
+     * three mapped points give the affine transform to the displayed page.
+     */
+    public static Page extract(PdfDocument pdfDocument, int pageIndex) {
+        long section = PdfMetrics.beginSection("PdfTextIndex.extract");
+        PdfMetrics.increment("text.pagesExtracted");
+        PdfPage pdfPage = pdfDocument.openPage(pageIndex);
+        try {
+            Point origin = pdfPage.mapPageCoordsToDevice(0, 0, UNIT, UNIT, 0, 0, 0);
+            Point xAxis = pdfPage.mapPageCoordsToDevice(0, 0, UNIT, UNIT, 0, 1000, 0);
+            Point yAxis = pdfPage.mapPageCoordsToDevice(0, 0, UNIT, UNIT, 0, 0, 1000);
+            float xx = (xAxis.x - origin.x) / 1000f;
+            float xy = (xAxis.y - origin.y) / 1000f;
+            float yx = (yAxis.x - origin.x) / 1000f;
+            float yy = (yAxis.y - origin.y) / 1000f;
+
+            PdfTextPage textPage = pdfPage.openTextPage();
+            try {
+                int count = textPage.textPageCountChars();
+                if (count <= 0) {
+                    return new Page("", new char[0]);
+                }
+                String text = textPage.textPageGetText(0, count);
+                if (text == null || text.length() != count) {
+                    // characters outside the BMP, fall back to one call per character
+                    char[] chars = new char[count];
+                    for (int i = 0; i < count; i++) {
+                        chars[i] = textPage.textPageGetUnicode(i);
+                    }
+                    text = new String(chars);
+                }
+
+                char[] boxes = new char[count * 4];
+                for (int i = 0; i < count; i++) {
+                    RectF box = textPage.textPageGetCharBox(i);
+                    if (box == null || (box.left == box.right && box.top == box.bottom)) {
+                        continue;
+                    }
+                    float x1 = origin.x + box.left * xx + box.top * yx;
+                    float y1 = origin.y + box.left * xy + box.top * yy;
+                    float x2 = origin.x + box.right * xx + box.bottom * yx;
+                    float y2 = origin.y + box.right * xy + box.bottom * yy;
+                    boxes[i * 4] = quantize(Math.min(x1, x2));
+                    boxes[i * 4 + 1] = quantize(Math.min(y1, y2));
+                    boxes[i * 4 + 2] = quantize(Math.max(x1, x2));
+                    boxes[i * 4 + 3] = quantize(Math.max(y1, y2));
+                }
+                return new Page(text, boxes);
+            } finally {
+                textPage.close();
+            }
+        } finally {
+            pdfPage.close();
+            PdfMetrics.endSection("textExtract", section);
+        }
+    }
+
+    private static char quantize(float value) {
+        return (char) Math.max(0, Math.min(UNIT, Math.round(value)));
+    }
+
+    // Whitespace collapsed and, for case-insensitive searches, case folded like Page.find expects.
+    public static String normalizeQuery(String query, boolean caseSensitive) {
+        String collapsed = query.trim().replaceAll("\\s+", " ");
+        return caseSensitive ? collapsed : fold(collapsed);
+    }
+
+    // per character, so offsets stay aligned with the original text
+    static String fold(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    static int findBox(char[] boxes, float x, float y, float slop) {
+        int closest = -1;
+        float closestDistance = slop * slop;
+        for (int i = 0; i * 4 + 3 < boxes.length; i++) {
+            float left = boxes[i * 4];
+            float top = boxes[i * 4 + 1];
+            float right = boxes[i * 4 + 2];
+            float bottom = boxes[i * 4 + 3];
+            if (right <= left && bottom <= top) {
+                continue;
+            }
+            float dx = x < left ? left - x : x > right ? x - right : 0;
+            float dy = y < top ? top - y : y > bottom ? y - bottom : 0;
+            float distance = dx * dx + dy * dy;
+            if (distance == 0) {
+                return i;
+            }
+            if (distance <= closestDistance) {
+                closest = i;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Merges the boxes of characters [start, end) into one rectangle per line. A character
+     * continues the current line when it overlaps it vertically by at least half of the
+     * smaller height.
+     */
+    static float[] mergeBoxes(char[] boxes, int start, int end) {
+        List<float[]> lines = new ArrayList<>();
+        float[] line = null;
+        for (int i = start; i < end && i * 4 + 3 < boxes.length; i++) {
+            float left = boxes[i * 4];
+            float top = boxes[i * 4 + 1];
+            float right = boxes[i * 4 + 2];
+            float bottom = boxes[i * 4 + 3];
+            if (right <= left && bottom <= top) {
+                continue;
+            }
+            if (line != null) {
+                float overlap = Math.min(bottom, line[3]) - Math.max(top, line[1]);
+                float minHeight = Math.min(bottom - top, line[3] - line[1]);
+                if (overlap >= minHeight / 2) {
+                    line[0] = Math.min(line[0], left);
+                    line[1] = Math.min(line[1], top);
+                    line[2] = Math.max(line[2], right);
+                    line[3] = Math.max(line[3], bottom);
+                    continue;
+                }
+            }
+            line = new float[] {left, top, right, bottom};
+            lines.add(line);
+        }
+
+        float[] rects = new float[lines.size() * 4];
+        for (int i = 0; i < lines.size(); i++) {
+            for (int j = 0; j < 4; j++) {
+                rects[i * 4 + j] = lines.get(i)[j] / UNIT;
+            }
+        }
+        return rects;
+    }
+}
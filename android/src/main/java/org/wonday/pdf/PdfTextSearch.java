@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.content.Context;
+import android.util.Log;
+
+import static java.lang.String.format;
+
+/**
+ * Full-text search over PdfTextIndex. Pages that aren't indexed yet are extracted on a
+ * small pool, each worker taking the next page in document order, and every page's hits
+ * are reported as soon as that page is done, so results arrive roughly in page order
+ * but not strictly. Cancelling stops the workers before their next page.
+ */
+public class PdfTextSearch {
+
+    private static final String TAG = "PdfTextSearch";
+    private static final int SNIPPET_RADIUS = 40;
+
+    // Pdfium serializes native calls, extra workers overlap matching and bridge traffic only.
+    private static final int WORKERS = Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1));
+    private static final ExecutorService pageExecutor = Executors.newFixedThreadPool(WORKERS);
+    private static final ExecutorService openExecutor = Executors.newSingleThreadExecutor();
+
+    public static class Hit {
+        public final int start;
+        public final int end;
+        // left, top, right, bottom per line, as fractions of the page
+        public final float[] rects;
+        public final String snippet;
+
+        Hit(int start, int end, float[] rects, String snippet) {
+            this.start = start;
+            this.end = end;
+            this.rects = rects;
+            this.snippet = snippet;
+        }
+    }
+
+    public interface Listener {
+        // called from worker threads, pageIndex is 0-based; pages without hits aren't reported
+        void onPageHits(int pageIndex, List<Hit> hits);
+
+        void onComplete(int totalHits);
+
+        void onError(Exception e);
+
+        void onCancelled();
+    }
+
+    public static class Request {
+        private volatile boolean cancelled;
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * @param maxResults stop once this many hits were reported, 0 for no limit
+     */
+    public static void search(final Context context, final String path, final String password, final String query,
+                              final boolean caseSensitive, final int maxResults, final Request request,
+                              final Listener listener) {
+        final String needle = PdfTextIndex.normalizeQuery(query, caseSensitive);
+        final int limit = maxResults > 0 ? maxResults : Integer.MAX_VALUE;
+        openExecutor.execute(() -> {
+            if (request.cancelled) {
+                listener.onCancelled();
+                return;
+            }
+            final PdfTextIndex index;
+            final PdfDocumentCache.Handle handle;
+            try {
+                String key = PdfTextIndex.getKey(context, path, password);
+                boolean persistent = PdfTextIndex.isPersistent(key);
+
+                // a complete index doesn't need the document at all
+                PdfTextIndex complete = PdfTextIndex.peek(context, key, persistent);
+                if (complete != null) {
+                    index = complete;
+                    handle = null;
+                } else {
+                    handle = PdfDocumentCache.acquire(context, path, password);
+                    index = PdfTextIndex.obtain(context, key, handle.getDocument().getPageCount(), persistent);
+                }
+            } catch (IOException | RuntimeException e) {
+                listener.onError(e);
+                return;
+            }
+
+            final AtomicInteger nextPage = new AtomicInteger();
+            final AtomicInteger hitCount = new AtomicInteger();
+            final AtomicInteger remaining = new AtomicInteger(WORKERS);
+            final Exception[] failure = new Exception[1];
+            final Runnable worker = () -> {
+                try {
+                    int pageIndex;
+                    while (!request.cancelled && hitCount.get() < limit
+                            && (pageIndex = nextPage.getAndIncrement()) < index.getPageCount()) {
+                        // a complete index has every page, handle is only null then
+                        PdfTextIndex.Page page = index.loadPage(handle != null ? handle.getDocument() : null, pageIndex);
+                        List<Hit> hits = findHits(page, needle, caseSensitive, limit, hitCount);
+                        if (!hits.isEmpty() && !request.cancelled) {
+                            listener.onPageHits(pageIndex, hits);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    Log.e(TAG, format("search in %s failed", path), e);
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                    request.cancel();
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        if (handle != null) {
+                            handle.release();
+                        }
+                        index.commit(context);
+                        if (failure[0] != null) {
+                            listener.onError(failure[0]);
+                        } else if (request.cancelled) {
+                            listener.onCancelled();
+                        } else {
+                            listener.onComplete(Math.min(hitCount.get(), limit));
+                        }
+                    }
+                }
+            };
+            for (int i = 0; i < WORKERS; i++) {
+                pageExecutor.execute(worker);
+            }
+        });
+    }
+
+    // Claims hits from the shared budget so parallel pages never report more than limit.
+    private static List<Hit> findHits(PdfTextIndex.Page page, String needle, boolean caseSensitive, int limit,
+                                      AtomicInteger hitCount) {
+        List<Hit> hits = new ArrayList<>();
+        for (int[] match : page.find(needle, caseSensitive, limit)) {
+            if (hitCount.getAndIncrement() >= limit) {
+                break;
+            }
+            hits.add(new Hit(match[0], match[1], page.rects(match[0], match[1]),
+                    page.snippet(match[0], match[1], SNIPPET_RADIUS)));
+        }
+        return hits;
+    }
+}
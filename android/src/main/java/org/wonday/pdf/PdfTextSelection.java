@@ -0,0 +1,295 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import android.content.Context;
+import android.graphics.RectF;
+import android.util.Log;
+import android.view.MotionEvent;
+
+import com.github.barteksc.pdfviewer.listener.OnLongPressListener;
+
+import io.legere.pdfiumandroid.PdfDocument;
+
+import static java.lang.String.format;
+
+/**
+ * Long-press text selection for PdfView: a long press selects the word under the finger
+ * and dragging extends the selection within that page, until the finger lifts.
+ *
+ * Nothing is loaded until a document is long pressed for the first time, most viewers
+ * never select text. From then on the text of the visible pages is loaded into
+ * PdfTextIndex in the background whenever the viewport settles on new pages, so starting
+ * and dragging a selection only hit-tests character boxes already in memory. A long press
+ * on a page whose text isn't there yet starts the selection as soon as it is.
+ */
+class PdfTextSelection implements OnLongPressListener {
+
+    private static final String TAG = "PdfTextSelection";
+
+    // a long press further than this from any character (fraction of the page) selects nothing
+    private static final float START_SLOP = 0.02f;
+
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor();
+
+    interface Listener {
+        // page is 1-based
+        void onTextSelected(int page, String text);
+
+        void onTextSelectionCleared();
+    }
+
+    private final PdfView view;
+    private final PageLayout layout;
+    private final PageHighlighter highlighter;
+    private final Listener listener;
+    private final RectF bounds = new RectF();
+
+    private boolean enabled = true;
+
+    // document, reset on every load
+    private String path;
+    private String password;
+    private SharedDocument document;
+    private PageOrder order = PageOrder.ALL;
+    private int generation = 0;
+    private PdfTextIndex index;
+    // whether the document was long pressed yet
+    private boolean pressed = false;
+
+    // selection, in characters of the document page: the long pressed word and where the
+    // finger is now, selected is everything from one to the other
+    private int page = -1;
+    private int viewPage = -1;
+    private int anchorStart = -1;
+    private int anchorEnd = -1;
+    private int focus = -1;
+    private boolean dragging = false;
+    private float lastX;
+    private float lastY;
+
+    PdfTextSelection(PdfView view, PageLayout layout, PageHighlighter highlighter, Listener listener) {
+        this.view = view;
+        this.layout = layout;
+        this.highlighter = highlighter;
+        this.listener = listener;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    void reset(String path, String password, SharedDocument document, PageOrder order) {
+        clear();
+        generation++;
+        this.path = path;
+        this.password = password;
+        this.document = document;
+        this.order = order;
+        this.index = null;
+        this.pressed = false;
+    }
+
+    // Loads the text of the pages on screen, call whenever the viewport settled.
+    void loadVisiblePages() {
+        if (!enabled || !pressed || path == null || !layout.isReady()) {
+            return;
+        }
+        layout.refresh();
+        boolean vertical = view.isSwipeVertical();
+        float viewLength = vertical ? view.getHeight() : view.getWidth();
+        int first = layout.findPageAt(0, 0);
+        int last = first;
+        for (int i = first + 1; i < layout.getPageCount(); i++) {
+            layout.getPageBounds(i, bounds);
+            if ((vertical ? bounds.top : bounds.left) > viewLength) {
+                break;
+            }
+            last = i;
+        }
+
+        int[] pages = new int[last - first + 1];
+        boolean missing = index == null;
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = order.getDocumentPage(first + i);
+            missing |= index != null && index.getPage(pages[i]) == null;
+        }
+        if (missing) {
+            load(pages);
+        }
+    }
+
+    private void load(final int[] pages) {
+        final int loadGeneration = generation;
+        final String loadPath = path;
+        final String loadPassword = password;
+        final SharedDocument loadDocument = document;
+        final PdfTextIndex known = index;
+        final Context context = view.getContext().getApplicationContext();
+        loader.execute(() -> {
+            try {
+                PdfTextIndex loaded = known;
+                if (loaded == null) {
+                    String key = PdfTextIndex.getKey(context, loadPath, loadPassword);
+                    loaded = PdfTextIndex.obtain(context, key, loadDocument.getPageCount(),
+                            PdfTextIndex.isPersistent(key));
+                }
+                for (int page : pages) {
+                    if (page < 0 || page >= loaded.getPageCount()) {
+                        continue;
+                    }
+                    PdfDocument pdfDocument = loadDocument.borrow();
+                    if (pdfDocument == null) {
+                        // PDFView let go of the document, the text of a later load is wanted now
+                        return;
+                    }
+                    try {
+                        loaded.loadPage(pdfDocument, page);
+                    } finally {
+                        loadDocument.giveBack();
+                    }
+                }
+                loaded.commit(context);
+
+                final PdfTextIndex result = loaded;
+                view.post(() -> onPagesLoaded(loadGeneration, result));
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, format("failed to load the text of %s", loadPath), e);
+            }
+        });
+    }
+
+    private void onPagesLoaded(int loadGeneration, PdfTextIndex loaded) {
+        if (loadGeneration != generation) {
+            return;
+        }
+        index = loaded;
+        // a long press that came too early
+        if (dragging && anchorStart < 0) {
+            start(lastX, lastY);
+        }
+    }
+
+    @Override
+    public void onLongPress(MotionEvent e) {
+        if (!enabled || path == null || !layout.isReady()) {
+            return;
+        }
+        clear();
+        pressed = true;
+        dragging = true;
+        lastX = e.getX();
+        lastY = e.getY();
+        start(lastX, lastY);
+    }
+
+    private void start(float x, float y) {
+        layout.refresh();
+        viewPage = layout.findPageAt(x, y);
+        page = order.getDocumentPage(viewPage);
+        PdfTextIndex.Page text = index != null ? index.getPage(page) : null;
+        if (text == null) {
+            load(new int[] {page});
+            return;
+        }
+        layout.getPageBounds(viewPage, bounds);
+        int character = text.findChar((x - bounds.left) / bounds.width(), (y - bounds.top) / bounds.height(), START_SLOP);
+        if (character < 0) {
+            dragging = false;
+            page = -1;
+            return;
+        }
+        anchorStart = character;
+        anchorEnd = character;
+        while (anchorStart > 0 && Character.isLetterOrDigit(text.text.charAt(anchorStart - 1))) {
+            anchorStart--;
+        }
+        while (anchorEnd < text.text.length() - 1 && Character.isLetterOrDigit(text.text.charAt(anchorEnd + 1))) {
+            anchorEnd++;
+        }
+        focus = character;
+        update(text);
+    }
+
+    /**
+     * Follows the finger after a long press.
+     *
+     * @return true while a selection is being dragged, the event must not reach PDFView then
+     */
+    boolean onTouchEvent(MotionEvent e) {
+        if (!dragging) {
+            return false;
+        }
+        lastX = e.getX();
+        lastY = e.getY();
+        int action = e.getActionMasked();
+        if (action == MotionEvent.ACTION_MOVE && anchorStart >= 0) {
+            PdfTextIndex.Page text = index.getPage(page);
+            layout.getPageBounds(viewPage, bounds);
+            float x = clamp((lastX - bounds.left) / bounds.width());
+            float y = clamp((lastY - bounds.top) / bounds.height());
+            int character = text.findChar(x, y, 1f);
+            if (character >= 0 && character != focus) {
+                focus = character;
+                update(text);
+            }
+        } else if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+            dragging = false;
+            if (anchorStart >= 0) {
+                PdfTextIndex.Page text = index.getPage(page);
+                listener.onTextSelected(page + 1, text.text.substring(getStart(), getEnd()));
+            } else {
+                page = -1;
+            }
+        }
+        return true;
+    }
+
+    private void update(PdfTextIndex.Page text) {
+        highlighter.setSelection(page, text.rects(getStart(), getEnd()));
+    }
+
+    private int getStart() {
+        return Math.min(anchorStart, focus);
+    }
+
+    // exclusive
+    private int getEnd() {
+        return Math.max(anchorEnd, focus) + 1;
+    }
+
+    /**
+     * @return whether there was a selection to clear
+     */
+    boolean clear() {
+        boolean selected = anchorStart >= 0;
+        dragging = false;
+        page = -1;
+        viewPage = -1;
+        anchorStart = -1;
+        anchorEnd = -1;
+        focus = -1;
+        highlighter.setSelection(-1, null);
+        if (selected) {
+            listener.onTextSelectionCleared();
+        }
+        return selected;
+    }
+
+    private static float clamp(float value) {
+        return Math.max(0, Math.min(1, value));
+    }
+}
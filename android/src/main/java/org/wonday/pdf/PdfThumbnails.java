@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.net.Uri;
+import android.os.Build;
+import android.util.Log;
+
+import io.legere.pdfiumandroid.PdfDocument;
+import io.legere.pdfiumandroid.PdfPage;
+
+import static java.lang.String.format;
+
+/**
+ * Batch thumbnail renderer for page strips and document grids. Opens the document once,
+ * renders the requested pages on a small pool and stores them on disk under
+ * fingerprint-page-width, so a grid scrolled back into view is served from files.
+ *
+ * The files are kept under MAX_BYTES, the least recently used go first.
+ */
+public class PdfThumbnails {
+
+    private static final String TAG = "PdfThumbnails";
+    private static final String DIRECTORY = "rnpdf-thumbnails";
+    private static final long MAX_BYTES = 32L * 1024 * 1024;
+
+    // Pdfium renders under a global lock, more threads would only queue up.
+    private static final ExecutorService renderExecutor = Executors.newFixedThreadPool(2);
+    private static final ExecutorService openExecutor = Executors.newSingleThreadExecutor();
+
+    public interface Callback {
+        // uris[i] is the thumbnail of pages[i], or null for pages out of range
+        void onComplete(String[] uris);
+
+        void onError(Exception e);
+
+        void onCancelled();
+    }
+
+    // Queued pages of a cancelled request are skipped, the ones already rendering finish.
+    public static class Request {
+        private volatile boolean cancelled;
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * @param pages 1-based page numbers
+     * @param format "webp" or "png"
+     */
+    public static void render(final Context context, final String path, final String password,
+                              final int[] pages, final int maxWidth, final String format, final Request request,
+                              final Callback callback) {
+        openExecutor.execute(() -> {
+            if (request.cancelled) {
+                callback.onCancelled();
+                return;
+            }
+            final PdfDocumentCache.Handle handle;
+            final File directory;
+            final String key;
+            try {
+                directory = new File(context.getCacheDir(), DIRECTORY);
+                if (!directory.exists() && !directory.mkdirs()) {
+                    throw new IOException("Unable to create " + directory);
+                }
+                key = getKey(context, path, password);
+                handle = PdfDocumentCache.acquire(context, path, password);
+            } catch (Exception e) {
+                callback.onError(e);
+                return;
+            }
+
+            final String extension = "png".equals(format) ? "png" : "webp";
+            final String[] uris = new String[pages.length];
+            final AtomicInteger remaining = new AtomicInteger(pages.length + 1);
+            final AtomicInteger rendered = new AtomicInteger();
+            final Runnable finish = () -> {
+                if (remaining.decrementAndGet() == 0) {
+                    handle.release();
+                    if (rendered.get() > 0) {
+                        trimFiles(directory, MAX_BYTES);
+                    }
+                    if (request.cancelled) {
+                        callback.onCancelled();
+                    } else {
+                        callback.onComplete(uris);
+                    }
+                }
+            };
+
+            int pageCount = handle.getDocument().getPageCount();
+            for (int i = 0; i < pages.length; i++) {
+                final int index = i;
+                final int pageIndex = pages[i] - 1;
+                final File file = new File(directory, format("%s-%d-%d.%s", key, pages[i], maxWidth, extension));
+                if (pageIndex < 0 || pageIndex >= pageCount) {
+                    finish.run();
+                } else if (file.exists()) {
+                    PdfMetrics.increment("thumbnails.hits");
+                    file.setLastModified(System.currentTimeMillis());
+                    uris[index] = Uri.fromFile(file).toString();
+                    finish.run();
+                } else {
+                    PdfMetrics.increment("thumbnails.misses");
+                    renderExecutor.execute(() -> {
+                        try {
+                            if (!request.cancelled && renderPage(handle.getDocument(), pageIndex, maxWidth, extension, file)) {
+                                rendered.incrementAndGet();
+                                uris[index] = Uri.fromFile(file).toString();
+                            }
+                        } finally {
+                            finish.run();
+                        }
+                    });
+                }
+            }
+            finish.run();
+        });
+    }
+
+    private static boolean renderPage(PdfDocument pdfDocument, int pageIndex, int maxWidth, String extension, File file) {
+        Bitmap bitmap = null;
+        long section = PdfMetrics.beginSection("PdfThumbnails.render");
+        PdfPage pdfPage = null;
+        try {
+            pdfPage = pdfDocument.openPage(pageIndex);
+            float pageWidth = pdfPage.getPageWidthPoint();
+            float pageHeight = pdfPage.getPageHeightPoint();
+            if (pageWidth <= 0 || pageHeight <= 0) {
+                return false;
+            }
+            int width = Math.max(1, Math.min(maxWidth, Math.round(pageWidth)));
+            int height = Math.max(1, Math.round(pageHeight * width / pageWidth));
+
+            bitmap = PdfBitmapPool.get(width, height, Bitmap.Config.ARGB_8888);
+            bitmap.eraseColor(Color.WHITE);
+            pdfPage.renderPageBitmap(bitmap, 0, 0, width, height, true, false);
+
+            File temp = new File(file.getPath() + ".tmp");
+            try (OutputStream output = new FileOutputStream(temp)) {
+                bitmap.compress(getCompressFormat(extension), 80, output);
+            }
+            return temp.renameTo(file);
+        } catch (Exception e) {
+            Log.e(TAG, format("render thumbnail of page %d failed", pageIndex + 1), e);
+            return false;
+        } finally {
+            if (pdfPage != null) {
+                pdfPage.close();
+            }
+            PdfBitmapPool.put(bitmap);
+            PdfMetrics.endSection("pageRender", section);
+        }
+    }
+
+    // Newest first, everything past the quota is deleted. The pages just rendered are the
+    // newest, so they stay.
+    static synchronized void trimFiles(File directory, long maxBytes) {
+        File[] files = directory.listFiles((dir, name) -> !name.endsWith(".tmp"));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        long bytes = 0;
+        for (File file : files) {
+            bytes += file.length();
+            if (bytes > maxBytes) {
+                file.delete();
+            }
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat getCompressFormat(String extension) {
+        if ("png".equals(extension)) {
+            return Bitmap.CompressFormat.PNG;
+        }
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R ? Bitmap.CompressFormat.WEBP_LOSSY : Bitmap.CompressFormat.WEBP;
+    }
+
+    // Content fingerprint, so renamed or re-downloaded copies share thumbnails. Protected
+    // documents and sources that can't be fingerprinted get a per-process key instead.
+    private static String getKey(Context context, String path, String password) throws IOException {
+        String fingerprint = password == null || password.isEmpty() ? PdfFingerprint.of(context, path) : null;
+        if (fingerprint != null) {
+            return fingerprint;
+        }
+        return format("tmp%d-%08x", android.os.Process.myPid(), path.hashCode());
+    }
+}
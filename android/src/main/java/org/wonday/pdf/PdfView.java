@@ -8,31 +8,27 @@
 
 package org.wonday.pdf;
 
-import java.io.File;
 import java.io.IOException;
 
-import android.content.ContentResolver;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
 import android.os.Handler;
 import android.os.Looper;
-import android.os.ParcelFileDescriptor;
 import android.util.SizeF;
+import android.util.SparseArray;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewOutlineProvider;
 import android.util.Log;
-import android.net.Uri;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.graphics.Canvas;
-import android.graphics.pdf.PdfRenderer;
 
-import io.legere.pdfiumandroid.util.Config;
-import io.legere.pdfiumandroid.util.ConfigKt;
-import io.legere.pdfiumandroid.util.AlreadyClosedBehavior;
-import io.legere.pdfiumandroid.DefaultLogger;
-
-import com.facebook.react.uimanager.ThemedReactContext;
-import com.facebook.react.uimanager.UIManagerHelper;
 import com.github.barteksc.pdfviewer.PDFView;
 import com.github.barteksc.pdfviewer.listener.OnPageChangeListener;
 import com.github.barteksc.pdfviewer.listener.OnLoadCompleteListener;
@@ -40,31 +36,30 @@ import com.github.barteksc.pdfviewer.listener.OnErrorListener;
 import com.github.barteksc.pdfviewer.listener.OnTapListener;
 import com.github.barteksc.pdfviewer.listener.OnDrawListener;
 import com.github.barteksc.pdfviewer.listener.OnPageScrollListener;
+import com.github.barteksc.pdfviewer.listener.OnRenderListener;
 import com.github.barteksc.pdfviewer.util.FitPolicy;
 import com.github.barteksc.pdfviewer.util.Constants;
 import com.github.barteksc.pdfviewer.link.LinkHandler;
 import com.github.barteksc.pdfviewer.model.LinkTapEvent;
+import com.github.barteksc.pdfviewer.model.PagePart;
 
-import com.facebook.react.bridge.ReactContext;
-import com.facebook.react.bridge.Arguments;
-import com.facebook.react.bridge.WritableMap;
-import com.facebook.react.bridge.ReactContext;
-import com.facebook.react.uimanager.UIManagerModule;
-import com.facebook.react.uimanager.events.EventDispatcher;
-import com.facebook.react.uimanager.events.Event;
-import com.facebook.react.uimanager.events.RCTEventEmitter;
-
+import io.legere.pdfiumandroid.PdfDocument;
 
 import static java.lang.String.format;
 
-import java.io.FileNotFoundException;
-import java.io.InputStream;
 
-import com.google.gson.Gson;
+import org.wonday.pdf.events.ErrorEvent;
+import org.wonday.pdf.events.LinkPressedEvent;
+import org.wonday.pdf.events.LoadCompleteEvent;
+import org.wonday.pdf.events.PageChangedEvent;
+import org.wonday.pdf.events.PageScrolledEvent;
+import org.wonday.pdf.events.PageSingleTapEvent;
+import org.wonday.pdf.events.PdfEventEmitter;
+import org.wonday.pdf.events.ScaleChangedEvent;
+import org.wonday.pdf.events.TextSelectedEvent;
+import org.wonday.pdf.events.TextSelectionClearedEvent;
 
-import org.wonday.pdf.events.TopChangeEvent;
-
-public class PdfView extends PDFView implements OnPageChangeListener,OnLoadCompleteListener,OnErrorListener,OnTapListener,OnDrawListener,OnPageScrollListener, LinkHandler {
+public class PdfView extends PDFView implements OnPageChangeListener,OnLoadCompleteListener,OnErrorListener,OnTapListener,OnDrawListener,OnPageScrollListener,OnRenderListener, LinkHandler {
     private int page = 1;               // start from 1
     private boolean horizontal = false;
     private float scale = 1;
@@ -85,6 +80,14 @@ public class PdfView extends PDFView implements OnPageChangeListener,OnLoadCompl
     private boolean singlePage = false;
     private boolean scrollEnabled = true;
     private boolean enableRTL = false;
+    // pageRange, 1-based and inclusive, 0 when open ended
+    private int rangeStart = 0;
+    private int rangeEnd = 0;
+    // the pages drawPdf gave PDFView, whether that was a pageRange window, and the
+    // document's page count when it had to read it
+    private PageOrder pageOrder = PageOrder.ALL;
+    private boolean windowLoaded = false;
+    private int documentPageCount = 0;
 
     private float originalWidth = 0;
     private float lastPageWidth = 0;
@@ -99,41 +102,140 @@ public class PdfView extends PDFView implements OnPageChangeListener,OnLoadCompl
     private float restoreXOffset = 0;
     private float restoreYOffset = 0;
 
+    // Opt-in "retain on detach" (milliseconds, 0 = off). The base PDFView tears down its
+    // part cache and render thread on detach, so what survives is a bitmap of the last
+    // frame: it is drawn as-is on re-attach while the document reloads underneath, and
+    // dropped once the reloaded document has rendered, the grace period expires, the
+    // view is dropped or the system asks us to trim memory.
+    private int retainOnDetach = 0;
+    private Bitmap retainedFrame = null;
+    private final Handler retainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable releaseRetainedFrameRunnable = this::releaseRetainedFrame;
+    private final ComponentCallbacks2 trimMemoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            releaseRetainedFrame();
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+
+        @Override
+        public void onLowMemory() {
+            releaseRetainedFrame();
+        }
+    };
+    private boolean trimMemoryCallbacksRegistered = false;
+
+    private final PdfEventEmitter eventEmitter = new PdfEventEmitter(this);
+
+    // Share of PdfMemoryManager's global budget this view asks for (0 = default), and
+    // whether the document was let go of while the UI was hidden and must be reloaded.
+    private int cacheSizeMB = 0;
+    private boolean trimmedWhileHidden = false;
+
+    // Direction-aware prefetch and progressive previews of low resolution pages, drawn
+    // through the background drawable, which is only installed while either is on.
+    private int prefetchPagesAhead = 0;
+    private int prefetchPagesBehind = 0;
+    private float prefetchResolution = PagePrefetcher.DEFAULT_RESOLUTION;
+    private final PagePrefetcher prefetcher = new PagePrefetcher(this);
+    private final PagePreviewDrawable previewBackground = new PagePreviewDrawable(prefetcher);
+
+    // search hits and the text selection drawn over the pages
+    private final PageLayout pageLayout = new PageLayout(this);
+    private final PageHighlighter highlighter = new PageHighlighter(this, pageLayout);
+    private final PdfTextSelection textSelection = new PdfTextSelection(this, pageLayout, highlighter,
+            new PdfTextSelection.Listener() {
+                @Override
+                public void onTextSelected(int page, String text) {
+                    eventEmitter.dispatch(new TextSelectedEvent(eventEmitter.getSurfaceId(), getId(), page, text));
+                }
+
+                @Override
+                public void onTextSelectionCleared() {
+                    eventEmitter.dispatch(new TextSelectionClearedEvent(eventEmitter.getSurfaceId(), getId()));
+                }
+            });
+
+    private static boolean globalZoomLimitsReleased = false;
+
+    private final PropChanges propChanges = new PropChanges(new PropChanges.Target() {
+        @Override
+        public void post(Runnable apply) {
+            PdfView.this.post(apply);
+        }
+
+        @Override
+        public void apply(int changes) {
+            applyChanges(changes);
+        }
+    });
+
+    // opens documents for drawPdf, and the one handed to PDFView last
+    private final PdfDocumentOpener opener = new PdfDocumentOpener(new PdfDocumentOpener.Target() {
+        @Override
+        public PdfDocument open(String path, String password) throws IOException {
+            return PdfiumHolder.openDocument(getContext(), path, password);
+        }
+
+        @Override
+        public void onOpened(PdfDocument document) {
+            loadDocument(document);
+        }
+
+        @Override
+        public void onError(Exception e) {
+            PdfView.this.onError(e);
+        }
+    });
+    private OpenedDocumentSource documentSource = null;
+    // the document PDFView shows, lent to the prefetcher and text selection
+    private SharedDocument sharedDocument = null;
+
+    // PdfMetrics start of the load drawPdf started, 0 when not measured
+    private long loadStart = 0;
+
     // used to store the parameters for `super.onSizeChanged`
     private int oldW = 0;
     private int oldH = 0;
 
     public PdfView(Context context, AttributeSet set){
         super(context, set);
-        ConfigKt.setPdfiumConfig(new Config(new DefaultLogger(), AlreadyClosedBehavior.IGNORE));
+        PdfiumHolder.setupConfig();
+        releaseGlobalZoomLimits();
+    }
+
+    // DragPinchManager clamps pinch zoom to min(Constants.Pinch.X, view limit) for both
+    // bounds. Lifting the globals out of the way once leaves each view's own
+    // setMinZoom/setMaxZoom in charge, so views with different ranges don't fight over them.
+    private static void releaseGlobalZoomLimits() {
+        if (!globalZoomLimitsReleased) {
+            Constants.Pinch.MINIMUM_ZOOM = Float.MAX_VALUE;
+            Constants.Pinch.MAXIMUM_ZOOM = Float.MAX_VALUE;
+            globalZoomLimitsReleased = true;
+        }
     }
 
     @Override
     public void onPageChanged(int page, int numberOfPages) {
-        // pdf lib page start from 0, convert it to our page (start from 1)
-        page = page+1;
-        this.page = page;
-        showLog(format("%s %s / %s", path, page, numberOfPages));
-
-        WritableMap event = Arguments.createMap();
-        event.putString("message", "pageChanged|"+page+"|"+numberOfPages);
-
-        ThemedReactContext context = (ThemedReactContext) getContext();
-        EventDispatcher dispatcher = UIManagerHelper.getEventDispatcherForReactTag(context, getId());
-        int surfaceId = UIManagerHelper.getSurfaceId(this);
-
-        TopChangeEvent tce = new TopChangeEvent(surfaceId, getId(), event);
-
-        if (dispatcher != null) {
-            new Handler(Looper.getMainLooper()).postDelayed(() -> dispatcher.dispatchEvent(tce), 10);
+        long section = PdfMetrics.beginSection("PdfView.onPageChanged");
+        try {
+            if (this.windowLoaded) {
+                page = this.pageOrder.getDocumentPage(page);
+                numberOfPages = this.documentPageCount;
+            }
+            // pdf lib page start from 0, convert it to our page (start from 1)
+            page = page+1;
+            this.page = page;
+            showLog(format("%s %s / %s", path, page, numberOfPages));
+
+            eventEmitter.dispatchThrottled(new PageChangedEvent(eventEmitter.getSurfaceId(), getId(), page, numberOfPages));
+            textSelection.loadVisiblePages();
+        } finally {
+            PdfMetrics.endSection("callbacks", section);
         }
-
-//        ReactContext reactContext = (ReactContext)this.getContext();
-//        reactContext.getJSModule(RCTEventEmitter.class).receiveEvent(
-//            this.getId(),
-//            "topChange",
-//            event
-//         );
     }
 
     // In some cases Yoga (I think) will measure the view only along one axis first, resulting in
@@ -159,114 +261,70 @@ public class PdfView extends PDFView implements OnPageChangeListener,OnLoadCompl
 
     @Override
     public void loadComplete(int numberOfPages) {
-        SizeF pageSize = getPageSize(0);
-        float width = pageSize.getWidth();
-        float height = pageSize.getHeight();
-
-        this.zoomTo(this.scale);
-
-        // Restore the viewport saved in onDetachedFromWindow. The base class jumps
-        // to defaultPage right after this callback returns, so the restore must be
-        // posted to run after that jump or it would be overwritten.
-        if (this.restorePath != null && this.restorePath.equals(this.path)) {
-            final float zoom = this.restoreZoom;
-            final float xOffset = this.restoreXOffset;
-            final float yOffset = this.restoreYOffset;
-            this.restorePath = null;
-            this.post(() -> {
-                this.zoomTo(zoom);
-                this.moveTo(xOffset, yOffset);
-                this.loadPages();
-            });
-        }
-
-        WritableMap event = Arguments.createMap();
-
-        //create a new json Object for the TableOfContents
-        Gson gson = new Gson();
-        event.putString("message", "loadComplete|"+numberOfPages+"|"+width+"|"+height+"|"+gson.toJson(this.getTableOfContents()));
+        long section = PdfMetrics.beginSection("PdfView.loadComplete");
+        try {
+            PdfMetrics.recordSince("load", this.loadStart);
+            this.loadStart = 0;
+            SizeF pageSize = getPageSize(0);
+            float width = pageSize.getWidth();
+            float height = pageSize.getHeight();
 
-        ThemedReactContext context = (ThemedReactContext) getContext();
-        EventDispatcher dispatcher = UIManagerHelper.getEventDispatcherForReactTag(context, getId());
-        int surfaceId = UIManagerHelper.getSurfaceId(this);
+            this.zoomTo(this.scale);
 
-        TopChangeEvent tce = new TopChangeEvent(surfaceId, getId(), event);
+            // Restore the viewport saved in onDetachedFromWindow. The base class jumps
+            // to defaultPage right after this callback returns, so the restore must be
+            // posted to run after that jump or it would be overwritten.
+            if (this.restorePath != null && this.restorePath.equals(this.path)) {
+                final float zoom = this.restoreZoom;
+                final float xOffset = this.restoreXOffset;
+                final float yOffset = this.restoreYOffset;
+                this.restorePath = null;
+                this.post(() -> {
+                    this.zoomTo(zoom);
+                    this.moveTo(xOffset, yOffset);
+                    this.loadPages();
+                });
+            }
 
-        if (dispatcher != null) {
-            dispatcher.dispatchEvent(tce);
+            if (this.windowLoaded) {
+                numberOfPages = this.documentPageCount;
+            }
+            eventEmitter.dispatch(new LoadCompleteEvent(eventEmitter.getSurfaceId(), getId(), numberOfPages, width, height));
+        } finally {
+            PdfMetrics.endSection("callbacks", section);
         }
-        //        ReactContext reactContext = (ReactContext)this.getContext();
-//        reactContext.getJSModule(RCTEventEmitter.class).receiveEvent(
-//            this.getId(),
-//            "topChange",
-//            event
-//         );
-
-        //Log.e("ReactNative", gson.toJson(this.getTableOfContents()));
-
     }
 
     @Override
     public void onError(Throwable t){
-        WritableMap event = Arguments.createMap();
-        if (t.getMessage().contains("Password required or incorrect password")) {
-            event.putString("message", "error|Password required or incorrect password.");
-        } else {
-            event.putString("message", "error|"+t.getMessage());
+        String message = t.getMessage();
+        if (message != null && message.contains("Password required or incorrect password")) {
+            message = "Password required or incorrect password.";
         }
-
-        ThemedReactContext context = (ThemedReactContext) getContext();
-        EventDispatcher dispatcher = UIManagerHelper.getEventDispatcherForReactTag(context, getId());
-        int surfaceId = UIManagerHelper.getSurfaceId(this);
-
-        TopChangeEvent tce = new TopChangeEvent(surfaceId, getId(), event);
-
-        if (dispatcher != null) {
-            dispatcher.dispatchEvent(tce);
-        }
-
-//        ReactContext reactContext = (ReactContext)this.getContext();
-//        reactContext.getJSModule(RCTEventEmitter.class).receiveEvent(
-//            this.getId(),
-//            "topChange",
-//            event
-//         );
+        eventEmitter.dispatch(new ErrorEvent(eventEmitter.getSurfaceId(), getId(), message));
     }
 
     @Override
     public void onPageScrolled(int page, float positionOffset){
-
-        // maybe change by other instance, restore zoom setting
-        Constants.Pinch.MINIMUM_ZOOM = this.minScale;
-        Constants.Pinch.MAXIMUM_ZOOM = this.maxScale;
-
+        long section = PdfMetrics.beginSection("PdfView.onPageScrolled");
+        try {
+            if (this.windowLoaded) {
+                page = this.pageOrder.getDocumentPage(page);
+            }
+            eventEmitter.dispatchThrottled(new PageScrolledEvent(eventEmitter.getSurfaceId(), getId(), page+1, positionOffset));
+        } finally {
+            PdfMetrics.endSection("callbacks", section);
+        }
     }
 
     @Override
     public boolean onTap(MotionEvent e){
-
-        // maybe change by other instance, restore zoom setting
-        //Constants.Pinch.MINIMUM_ZOOM = this.minScale;
-        //Constants.Pinch.MAXIMUM_ZOOM = this.maxScale;
-
-        WritableMap event = Arguments.createMap();
-        event.putString("message", "pageSingleTap|"+page+"|"+e.getX()+"|"+e.getY());
-
-        ThemedReactContext context = (ThemedReactContext) getContext();
-        EventDispatcher dispatcher = UIManagerHelper.getEventDispatcherForReactTag(context, getId());
-        int surfaceId = UIManagerHelper.getSurfaceId(this);
-
-        TopChangeEvent tce = new TopChangeEvent(surfaceId, getId(), event);
-
-        if (dispatcher != null) {
-            dispatcher.dispatchEvent(tce);
+        // a tap only dismisses the selection
+        if (textSelection.clear()) {
+            return true;
         }
-//        ReactContext reactContext = (ReactContext)this.getContext();
-//        reactContext.getJSModule(RCTEventEmitter.class).receiveEvent(
-//            this.getId(),
-//            "topChange",
-//            event
-//         );
+
+        eventEmitter.dispatch(new PageSingleTapEvent(eventEmitter.getSurfaceId(), getId(), page, e.getX(), e.getY()));
 
         // process as tap
          return true;
@@ -275,41 +333,67 @@ public class PdfView extends PDFView implements OnPageChangeListener,OnLoadCompl
 
     @Override
     public void onLayerDrawn(Canvas canvas, float pageWidth, float pageHeight, int displayedPage){
-        if (originalWidth == 0) {
-            originalWidth = pageWidth;
+        long section = PdfMetrics.beginSection("PdfView.onLayerDrawn");
+        try {
+            if (originalWidth == 0) {
+                originalWidth = pageWidth;
+            }
+
+            if (lastPageWidth>0 && lastPageHeight>0 && (pageWidth!=lastPageWidth || pageHeight!=lastPageHeight)) {
+                eventEmitter.dispatchThrottled(new ScaleChangedEvent(eventEmitter.getSurfaceId(), getId(), pageWidth/originalWidth));
+            }
+
+            lastPageWidth = pageWidth;
+            lastPageHeight = pageHeight;
+        } finally {
+            PdfMetrics.endSection("callbacks", section);
         }
+    }
 
-        if (lastPageWidth>0 && lastPageHeight>0 && (pageWidth!=lastPageWidth || pageHeight!=lastPageHeight)) {
-            // maybe change by other instance, restore zoom setting
-            Constants.Pinch.MINIMUM_ZOOM = this.minScale;
-            Constants.Pinch.MAXIMUM_ZOOM = this.maxScale;
+    @Override
+    public void onInitiallyRendered(int nbPages) {
+        // posted so it runs after the viewport restore queued in loadComplete
+        if (this.retainedFrame != null) {
+            this.post(this::releaseRetainedFrame);
+        }
+    }
 
-            WritableMap event = Arguments.createMap();
-            event.putString("message", "scaleChanged|"+(pageWidth/originalWidth));
-            ThemedReactContext context = (ThemedReactContext) getContext();
-            EventDispatcher dispatcher = UIManagerHelper.getEventDispatcherForReactTag(context, getId());
-            int surfaceId = UIManagerHelper.getSurfaceId(this);
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent event) {
+        // PDFView must not scroll while a selection is being dragged
+        if (textSelection.onTouchEvent(event)) {
+            return true;
+        }
+        return super.dispatchTouchEvent(event);
+    }
 
-            TopChangeEvent tce = new TopChangeEvent(surfaceId, getId(), event);
+    @Override
+    public void onBitmapRendered(PagePart part) {
+        super.onBitmapRendered(part);
+        PdfMetrics.increment("partsRendered");
+    }
 
-            if (dispatcher != null) {
-                dispatcher.dispatchEvent(tce);
+    @Override
+    protected void onDraw(Canvas canvas) {
+        long section = PdfMetrics.beginSection("PdfView.onDraw");
+        try {
+            super.onDraw(canvas);
+            if (this.retainedFrame != null) {
+                canvas.drawBitmap(this.retainedFrame, 0, 0, null);
             }
-//            ReactContext reactContext = (ReactContext)this.getContext();
-//            reactContext.getJSModule(RCTEventEmitter.class).receiveEvent(
-//                this.getId(),
-//                "topChange",
-//                event
-//             );
+        } finally {
+            PdfMetrics.endSection("draw", section);
         }
-
-        lastPageWidth = pageWidth;
-        lastPageHeight = pageHeight;
     }
 
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
+        PdfMemoryManager.register(this, this.cacheSizeMB);
+        retainHandler.removeCallbacks(releaseRetainedFrameRunnable);
+        if (this.retainedFrame != null && (this.restorePath == null || !this.restorePath.equals(this.path))) {
+            releaseRetainedFrame();
+        }
         if (this.isRecycled())
             this.drawPdf();
     }
@@ -321,158 +405,547 @@ public class PdfView extends PDFView implements OnPageChangeListener,OnLoadCompl
     @Override
     protected void onDetachedFromWindow() {
         if (!this.isRecycled() && this.path != null) {
-            this.restorePath = this.path;
-            this.restoreZoom = this.getZoom();
-            this.restoreXOffset = this.getCurrentXOffset();
-            this.restoreYOffset = this.getCurrentYOffset();
+            saveViewport();
+            if (this.retainOnDetach > 0) {
+                retainFrame();
+            }
         }
+        prefetcher.clear();
+        PdfMemoryManager.unregister(this);
+        // the document is reopened on re-attach, an open on its way would load a detached view
+        cancelLoad();
         super.onDetachedFromWindow();
+        releaseDocumentSource();
     }
 
-    private int getPdfPageCount(File pdfFile) throws IOException {
-        ParcelFileDescriptor fileDescriptor =
-                ParcelFileDescriptor.open(pdfFile, ParcelFileDescriptor.MODE_READ_ONLY);
-        PdfRenderer renderer = new PdfRenderer(fileDescriptor);
-        int pageCount = renderer.getPageCount();
-        renderer.close();
-        fileDescriptor.close();
-        return pageCount;
+    private void saveViewport() {
+        this.restorePath = this.path;
+        this.restoreZoom = this.getZoom();
+        this.restoreXOffset = this.getCurrentXOffset();
+        this.restoreYOffset = this.getCurrentYOffset();
     }
 
+    /**
+     * Called by PdfMemoryManager when the UI is hidden or memory runs low. Usually only the
+     * extras go (prefetched pages, retained frame). With releaseDocument, once the app is in
+     * the background, the document itself is released and reloaded when shown again.
+     */
+    public void trimMemory(boolean releaseDocument) {
+        releaseRetainedFrame();
+        prefetcher.clear();
+        if (releaseDocument && !this.isRecycled() && this.path != null) {
+            saveViewport();
+            this.trimmedWhileHidden = true;
+            recycle();
+        }
+        if (releaseDocument && opener.isPending()) {
+            cancelLoad();
+            this.trimmedWhileHidden = true;
+        }
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        if (visibility == View.VISIBLE) {
+            PdfMemoryManager.onVisible();
+            if (this.trimmedWhileHidden) {
+                this.trimmedWhileHidden = false;
+                if (this.isRecycled()) {
+                    drawPdf();
+                }
+            }
+        }
+    }
+
+    private void retainFrame() {
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        releaseRetainedFrame();
+        try {
+            Bitmap frame = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            draw(new Canvas(frame));
+            this.retainedFrame = frame;
+        } catch (OutOfMemoryError e) {
+            Log.w("PdfView", "not enough memory to retain the last frame", e);
+            return;
+        }
+        if (!trimMemoryCallbacksRegistered) {
+            getContext().getApplicationContext().registerComponentCallbacks(trimMemoryCallbacks);
+            trimMemoryCallbacksRegistered = true;
+        }
+        // View.postDelayed would wait for the next attach, use the main looper directly
+        retainHandler.postDelayed(releaseRetainedFrameRunnable, this.retainOnDetach);
+    }
+
+    public void releaseRetainedFrame() {
+        retainHandler.removeCallbacks(releaseRetainedFrameRunnable);
+        if (trimMemoryCallbacksRegistered) {
+            getContext().getApplicationContext().unregisterComponentCallbacks(trimMemoryCallbacks);
+            trimMemoryCallbacksRegistered = false;
+        }
+        if (this.retainedFrame != null) {
+            this.retainedFrame.recycle();
+            this.retainedFrame = null;
+            invalidate();
+        }
+    }
+
+    /**
+     * Starts loading path. The document is opened on PdfDocumentOpener's thread, PDFView is
+     * configured once it is open (with the props current by then) and given that document.
+     * A load started while another one is opening makes the earlier one stale, it never
+     * reaches PDFView or fires events.
+     */
     public void drawPdf() {
         showLog(format("drawPdf path:%s %s", this.path, this.page));
 
         if (this.path != null){
+            // page/scale events still queued for the previous document are stale now
+            eventEmitter.cancel();
 
-            // set scale
-            this.setMinZoom(this.minScale);
-            this.setMaxZoom(this.maxScale);
-            this.setMidZoom((this.maxScale+this.minScale)/2);
-            Constants.Pinch.MINIMUM_ZOOM = this.minScale;
-            Constants.Pinch.MAXIMUM_ZOOM = this.maxScale;
-
-            Configurator configurator;
-
-            if (this.path.startsWith("content://")) {
-                ContentResolver contentResolver = getContext().getContentResolver();
-                InputStream inputStream = null;
-                Uri uri = Uri.parse(this.path);
-                try {
-                    inputStream = contentResolver.openInputStream(uri);
-                } catch (FileNotFoundException e) {
-                    throw new RuntimeException(e.getMessage());
-                }
-                configurator = this.fromStream(inputStream);
-            } else {
-                configurator = this.fromUri(getURI(this.path));
+            // an open of the same document already on its way picks up the new props
+            if (opener.open(this.path, this.password)) {
+                this.loadStart = PdfMetrics.now();
             }
+        }
+    }
+
+    private void loadDocument(PdfDocument document) {
+        // set scale
+        this.setMinZoom(this.minScale);
+        this.setMaxZoom(this.maxScale);
+        this.setMidZoom((this.maxScale+this.minScale)/2);
+
+        releaseDocumentSource();
+        this.documentSource = new OpenedDocumentSource(this.path, document);
+        SharedDocument shared = new SharedDocument(document);
+        Configurator configurator = this.fromSource(this.documentSource);
+
+        int defaultPage = this.page-1;
+        PageOrder order = createPageOrder(document.getPageCount());
+        this.pageOrder = order;
+        this.windowLoaded = isWindowed() && !order.isAll();
+        if (this.windowLoaded) {
+            defaultPage = order.getNearestViewPage(this.page-1);
+        }
+        if (!order.isAll()) {
+            configurator.pages(order.getDocumentPages());
+        }
 
-            configurator.defaultPage(this.page-1)
-                .swipeHorizontal(this.horizontal)
-                .onPageChange(this)
-                .onLoad(this)
-                .onError(this)
-                .onDraw(this)
-                .onPageScroll(this)
-                .spacing(this.spacing)
-                .password(this.password)
-                .enableAntialiasing(this.enableAntialiasing)
-                .pageFitPolicy(this.fitPolicy)
-                .pageSnap(this.pageSnap)
-                .autoSpacing(this.autoSpacing)
-                .pageFling(this.pageFling)
-                .enableSwipe(!this.singlePage && this.scrollEnabled)
-                .enableDoubletap(!this.singlePage && this.enableDoubleTapZoom)
-                .enableAnnotationRendering(this.enableAnnotationRendering)
-                .linkHandler(this)
-            ;
-
-            if (enableRTL) {
-                try {
-                    int pageCount = getPdfPageCount(new File(this.path));
-                    int[] reversedPages = new int[pageCount];
-                    for (int i=0; i<pageCount; i++) {
-                        reversedPages[i] = pageCount-1 - i;
-                    }
-                    configurator.pages(reversedPages);
-                    if(this.page != 1){
-                        this.page = pageCount;
-                    }
-                } catch (IOException e) {
-                    Log.e("error", "error while reading PDF", e);
+        // PDFView may still report on the document it is replacing, only this load's
+        // callbacks are passed on, and only while no newer load was started
+        final int generation = opener.getGeneration();
+        configurator.defaultPage(defaultPage)
+            .swipeHorizontal(this.horizontal)
+            .onPageChange((page, numberOfPages) -> {
+                if (opener.isCurrent(generation)) {
+                    onPageChanged(page, numberOfPages);
                 }
-            }
+            })
+            .onLoad(numberOfPages -> {
+                if (opener.isCurrent(generation)) {
+                    loadComplete(numberOfPages);
+                }
+            })
+            .onError(t -> {
+                if (opener.isCurrent(generation)) {
+                    onError(t);
+                }
+            })
+            .onDraw(this)
+            .onDrawAll(highlighter)
+            .onLongPress(textSelection)
+            .onPageScroll((page, positionOffset) -> {
+                if (opener.isCurrent(generation)) {
+                    onPageScrolled(page, positionOffset);
+                }
+            })
+            .onRender(this)
+            .spacing(this.spacing)
+            .password(this.password)
+            .enableAntialiasing(this.enableAntialiasing)
+            .pageFitPolicy(this.fitPolicy)
+            .pageSnap(this.pageSnap)
+            .autoSpacing(this.autoSpacing)
+            .pageFling(this.pageFling)
+            .enableSwipe(!this.singlePage && this.scrollEnabled)
+            .enableDoubletap(!this.singlePage && this.enableDoubleTapZoom)
+            .enableAnnotationRendering(this.enableAnnotationRendering)
+            .linkHandler(this)
+        ;
+
+        if (this.singlePage) {
+            setTouchesEnabled(false);
+        } else {
+            configurator.onTap(this);
+        }
 
-            if (this.singlePage) {
-                configurator.pages(this.page-1);
-                setTouchesEnabled(false);
-            } else {
-                configurator.onTap(this);
-            }
+        prefetcher.reset(this.path, shared, order);
+        highlighter.setPageOrder(order);
+        textSelection.reset(this.path, this.password, shared, order);
+
+        // recycles the document shown so far, which closes the one shared before
+        configurator.load();
+        this.sharedDocument = shared;
+    }
 
-            configurator.load();
+    // Stops the load on its way, if any. The view keeps what it shows.
+    public void cancelLoad() {
+        opener.cancel();
+        this.loadStart = 0;
+    }
+
+    // Closes the document given to the last load if PDFView never took it.
+    private void releaseDocumentSource() {
+        closeSharedDocument();
+        if (this.documentSource != null) {
+            this.documentSource.release();
+            this.documentSource = null;
         }
     }
 
+    // PDFView closes its document here, the helpers borrowing it must be done first.
+    @Override
+    public void recycle() {
+        closeSharedDocument();
+        super.recycle();
+    }
+
+    private void closeSharedDocument() {
+        if (this.sharedDocument != null) {
+            this.sharedDocument.close();
+            this.sharedDocument = null;
+        }
+    }
+
+    /**
+     * Lets go of everything the view holds natively as soon as React drops it, instead of
+     * when it is garbage collected: the load on its way, the document and PDFView's part
+     * bitmaps, previews, the retained frame and the share of the memory budget.
+     */
+    public void release() {
+        cancelLoad();
+        eventEmitter.cancel();
+        releaseRetainedFrame();
+        prefetcher.clear();
+        PdfMemoryManager.unregister(this);
+        if (!this.isRecycled()) {
+            recycle();
+        }
+        releaseDocumentSource();
+        this.restorePath = null;
+        this.trimmedWhileHidden = false;
+    }
+
+    /**
+     * Brings a released view back to the state of a new one for PdfViewPool: every prop
+     * React may not send again to its next user is back at its default, including the
+     * plain View properties React styles. PdfManager resets the props it only knows by name
+     * after this.
+     */
+    void reset() {
+        this.page = 1;
+        this.horizontal = false;
+        this.scale = 1;
+        this.minScale = 1;
+        this.maxScale = 3;
+        this.path = null;
+        this.spacing = 10;
+        this.password = "";
+        this.enableAntialiasing = true;
+        this.enableAnnotationRendering = true;
+        this.enableDoubleTapZoom = true;
+        this.enablePaging = false;
+        this.autoSpacing = false;
+        this.pageFling = false;
+        this.pageSnap = false;
+        this.fitPolicy = FitPolicy.WIDTH;
+        if (this.singlePage) {
+            setTouchesEnabled(true);
+        }
+        this.singlePage = false;
+        this.scrollEnabled = true;
+        this.enableRTL = false;
+        this.rangeStart = 0;
+        this.rangeEnd = 0;
+        this.pageOrder = PageOrder.ALL;
+        this.windowLoaded = false;
+        this.documentPageCount = 0;
+        this.originalWidth = 0;
+        this.lastPageWidth = 0;
+        this.lastPageHeight = 0;
+        this.retainOnDetach = 0;
+        this.cacheSizeMB = 0;
+        this.loadStart = 0;
+
+        textSelection.clear();
+        textSelection.setEnabled(true);
+        highlighter.setHighlights(new SparseArray<>());
+        eventEmitter.setIntervalMs(PdfEventEmitter.DEFAULT_INTERVAL_MS);
+        prefetcher.setRenderAnnotations(true);
+        prefetcher.setPreviewQuality(null);
+        this.prefetchPagesAhead = 0;
+        this.prefetchPagesBehind = 0;
+        this.prefetchResolution = PagePrefetcher.DEFAULT_RESOLUTION;
+        updatePrefetchPolicy();
+
+        setBackground(null);
+        setAlpha(1);
+        setTranslationX(0);
+        setTranslationY(0);
+        setTranslationZ(0);
+        setScaleX(1);
+        setScaleY(1);
+        setRotation(0);
+        setRotationX(0);
+        setRotationY(0);
+        setElevation(0);
+        setVisibility(View.VISIBLE);
+        setContentDescription(null);
+        // what React's setters leave behind when their prop goes back to null
+        setTag(null);
+        setImportantForAccessibility(View.IMPORTANT_FOR_ACCESSIBILITY_AUTO);
+        setAccessibilityDelegate(null);
+        setOutlineProvider(ViewOutlineProvider.BACKGROUND);
+        setClipToOutline(false);
+    }
+
+    // The pages PDFView is given: the pageRange window or the whole document, reversed for
+    // RTL. singlePage shows just the current page.
+    private PageOrder createPageOrder(int pageCount) {
+        PageOrder order = PageOrder.ALL;
+        this.documentPageCount = pageCount;
+        if (this.enableRTL || isWindowed()) {
+            int first = 0;
+            int count = pageCount;
+            if (isWindowed()) {
+                first = Math.max(Math.min(this.rangeStart, pageCount), 1) - 1;
+                int last = this.rangeEnd > 0 ? Math.min(this.rangeEnd, pageCount) : pageCount;
+                count = Math.max(last - first, 1);
+            } else if (this.page != 1) {
+                this.page = pageCount;
+            }
+            order = PageOrder.range(first, count, this.enableRTL);
+        }
+        if (this.singlePage) {
+            order = PageOrder.range(this.page-1, 1);
+        }
+        return order;
+    }
+
+    // With a pageRange, page props and events use document pages instead of PDFView's.
+    private boolean isWindowed() {
+        return !this.singlePage && (this.rangeStart > 0 || this.rangeEnd > 0);
+    }
+
     public void setEnableDoubleTapZoom(boolean enableDoubleTapZoom) {
-        this.enableDoubleTapZoom = enableDoubleTapZoom;
+        if (this.enableDoubleTapZoom != enableDoubleTapZoom) {
+            this.enableDoubleTapZoom = enableDoubleTapZoom;
+            markChanged(PropChanges.LAYOUT);
+        }
     }
 
     public void setPath(String path) {
-        this.path = path;
+        if (this.path == null || !this.path.equals(path)) {
+            this.path = path;
+            markChanged(PropChanges.DOCUMENT);
+        }
     }
 
     // page start from 1
     public void setPage(int page) {
-        this.page = Math.max(page, 1);
-        this.handlePage(this.page - 1);
+        page = Math.max(page, 1);
+        if (this.page != page) {
+            this.page = page;
+            markChanged(PropChanges.PAGE);
+        }
+    }
+
+    private void markChanged(int change) {
+        propChanges.mark(change);
+    }
+
+    // Coalesces all prop setters of one transaction (and the command path) into one apply.
+    public void scheduleApplyChanges() {
+        propChanges.schedule();
+    }
+
+    private void applyChanges(int changes) {
+        if (this.path == null || this.path.isEmpty()) {
+            return;
+        }
+
+        if (PropChanges.needsReload(changes) || this.isRecycled()) {
+            // drawPdf opens at this.page, which follows the visible page, so a layout
+            // change keeps the reader where they were
+            drawPdf();
+            return;
+        }
+        int viewPage = this.windowLoaded ? this.pageOrder.getNearestViewPage(this.page - 1) : this.page - 1;
+        if ((changes & PropChanges.PAGE) != 0 && this.getCurrentPage() != viewPage) {
+            this.handlePage(viewPage);
+        }
+        if ((changes & PropChanges.SCALE) != 0) {
+            this.zoomTo(this.scale);
+            this.loadPages();
+        }
+    }
+
+    public void setRetainOnDetach(int retainOnDetach) {
+        this.retainOnDetach = Math.max(retainOnDetach, 0);
+        if (this.retainOnDetach == 0) {
+            releaseRetainedFrame();
+        }
+    }
+
+    public void setPrefetchPagesAhead(int prefetchPagesAhead) {
+        this.prefetchPagesAhead = prefetchPagesAhead;
+        updatePrefetchPolicy();
+    }
+
+    public void setPrefetchPagesBehind(int prefetchPagesBehind) {
+        this.prefetchPagesBehind = prefetchPagesBehind;
+        updatePrefetchPolicy();
+    }
+
+    public void setPreviewQuality(String previewQuality) {
+        prefetcher.setPreviewQuality(previewQuality);
+        updatePrefetchPolicy();
+    }
+
+    public void setEnableTextSelection(boolean enableTextSelection) {
+        textSelection.setEnabled(enableTextSelection);
+    }
+
+    // document page (0-based) -> left, top, right, bottom per rectangle, as fractions of the page
+    public void setHighlights(SparseArray<float[]> highlights) {
+        highlighter.setHighlights(highlights);
+    }
+
+    public void setPrefetchResolution(float prefetchResolution) {
+        this.prefetchResolution = prefetchResolution;
+        updatePrefetchPolicy();
+    }
+
+    private void updatePrefetchPolicy() {
+        prefetcher.setPolicy(this.prefetchPagesAhead, this.prefetchPagesBehind, this.prefetchResolution);
+        Drawable background = getBackground();
+        if (prefetcher.isEnabled() && background != previewBackground) {
+            previewBackground.setColor(background instanceof ColorDrawable ? ((ColorDrawable) background).getColor() : Color.WHITE);
+            super.setBackground(previewBackground);
+        } else if (!prefetcher.isEnabled() && background == previewBackground) {
+            super.setBackground(new ColorDrawable(previewBackground.getColor()));
+        }
+        invalidate();
+    }
+
+    // React sets backgroundColor through here, keep it on the preview drawable when installed
+    @Override
+    public void setBackgroundColor(int color) {
+        if (getBackground() == previewBackground) {
+            previewBackground.setColor(color);
+        } else {
+            super.setBackgroundColor(color);
+        }
+    }
+
+    public void setCacheSizeMB(int cacheSizeMB) {
+        this.cacheSizeMB = Math.max(cacheSizeMB, 0);
+        if (isAttachedToWindow()) {
+            PdfMemoryManager.register(this, this.cacheSizeMB);
+        }
+    }
+
+    public void cancelPendingEvents() {
+        eventEmitter.cancel();
+    }
+
+    public void setEventThrottleInterval(int eventThrottleInterval) {
+        eventEmitter.setIntervalMs(eventThrottleInterval);
     }
 
     public void setEnableRTL(boolean enableRTL) {
-        this.enableRTL = enableRTL;
+        if (this.enableRTL != enableRTL) {
+            this.enableRTL = enableRTL;
+            markChanged(PropChanges.DOCUMENT);
+        }
     }
 
     public void setScale(float scale) {
-        this.scale = scale;
-        if (!this.isRecycled()) {
-            this.zoomTo(this.scale);
+        if (this.scale != scale) {
+            this.scale = scale;
+            markChanged(PropChanges.SCALE);
         }
     }
 
     public void setMinScale(float minScale) {
         this.minScale = minScale;
+        this.setMinZoom(this.minScale);
+        this.setMidZoom((this.maxScale+this.minScale)/2);
     }
 
     public void setMaxScale(float maxScale) {
         this.maxScale = maxScale;
+        this.setMaxZoom(this.maxScale);
+        this.setMidZoom((this.maxScale+this.minScale)/2);
     }
 
     public void setHorizontal(boolean horizontal) {
-        this.horizontal = horizontal;
+        if (this.horizontal != horizontal) {
+            this.horizontal = horizontal;
+            markChanged(PropChanges.LAYOUT);
+        }
     }
 
     public void setScrollEnabled(boolean scrollEnabled) {
-        this.scrollEnabled = scrollEnabled;
+        if (this.scrollEnabled != scrollEnabled) {
+            this.scrollEnabled = scrollEnabled;
+            markChanged(PropChanges.LAYOUT);
+        }
     }
 
     public void setSpacing(int spacing) {
-        this.spacing = spacing;
+        if (this.spacing != spacing) {
+            this.spacing = spacing;
+            markChanged(PropChanges.LAYOUT);
+        }
     }
 
     public void setPassword(String password) {
-        this.password = password;
+        if (password == null) {
+            password = "";
+        }
+        if (!this.password.equals(password)) {
+            this.password = password;
+            markChanged(PropChanges.DOCUMENT);
+        }
     }
 
     public void setEnableAntialiasing(boolean enableAntialiasing) {
-        this.enableAntialiasing = enableAntialiasing;
+        if (this.enableAntialiasing != enableAntialiasing) {
+            this.enableAntialiasing = enableAntialiasing;
+            markChanged(PropChanges.LAYOUT);
+        }
     }
 
     public void setEnableAnnotationRendering(boolean enableAnnotationRendering) {
-        this.enableAnnotationRendering = enableAnnotationRendering;
+        if (this.enableAnnotationRendering != enableAnnotationRendering) {
+            this.enableAnnotationRendering = enableAnnotationRendering;
+            prefetcher.setRenderAnnotations(enableAnnotationRendering);
+            markChanged(PropChanges.LAYOUT);
+        }
     }
 
     public void setEnablePaging(boolean enablePaging) {
+        if (this.enablePaging == enablePaging) {
+            return;
+        }
         this.enablePaging = enablePaging;
+        markChanged(PropChanges.LAYOUT);
         if (this.enablePaging) {
             this.autoSpacing = true;
             this.pageFling = true;
@@ -485,6 +958,7 @@ public class PdfView extends PDFView implements OnPageChangeListener,OnLoadCompl
     }
 
     public void setFitPolicy(int fitPolicy) {
+        FitPolicy previous = this.fitPolicy;
         switch(fitPolicy){
             case 0:
                 this.fitPolicy = FitPolicy.WIDTH;
@@ -499,11 +973,27 @@ public class PdfView extends PDFView implements OnPageChangeListener,OnLoadCompl
                 break;
             }
         }
+        if (this.fitPolicy != previous) {
+            markChanged(PropChanges.LAYOUT);
+        }
+    }
 
+    // 1-based and inclusive, 0 for the start or the end of the document
+    public void setPageRange(int start, int end) {
+        start = Math.max(start, 0);
+        end = Math.max(end, 0);
+        if (this.rangeStart != start || this.rangeEnd != end) {
+            this.rangeStart = start;
+            this.rangeEnd = end;
+            markChanged(PropChanges.RANGE);
+        }
     }
 
     public void setSinglePage(boolean singlePage) {
-        this.singlePage = singlePage;
+        if (this.singlePage != singlePage) {
+            this.singlePage = singlePage;
+            markChanged(PropChanges.DOCUMENT);
+        }
     }
 
     /**
@@ -515,7 +1005,11 @@ public class PdfView extends PDFView implements OnPageChangeListener,OnLoadCompl
         if (uri != null && !uri.isEmpty()) {
             handleUri(uri);
         } else if (page != null) {
-            handlePage(page);
+            // links point at document pages, ignored if outside of the pages shown
+            int viewPage = this.pageOrder.getViewPage(page);
+            if (viewPage >= 0) {
+                handlePage(viewPage);
+            }
         }
     }
 
@@ -523,25 +1017,7 @@ public class PdfView extends PDFView implements OnPageChangeListener,OnLoadCompl
      * @see https://github.com/barteksc/AndroidPdfViewer/blob/master/android-pdf-viewer/src/main/java/com/github/barteksc/pdfviewer/link/DefaultLinkHandler.java
      */
     private void handleUri(String uri) {
-        WritableMap event = Arguments.createMap();
-        event.putString("message", "linkPressed|"+uri);
-
-        ThemedReactContext context = (ThemedReactContext) getContext();
-        EventDispatcher dispatcher = UIManagerHelper.getEventDispatcherForReactTag(context, getId());
-        int surfaceId = UIManagerHelper.getSurfaceId(this);
-
-        TopChangeEvent tce = new TopChangeEvent(surfaceId, getId(), event);
-
-        if (dispatcher != null) {
-            dispatcher.dispatchEvent(tce);
-        }
-
-//        ReactContext reactContext = (ReactContext)this.getContext();
-//        reactContext.getJSModule(RCTEventEmitter.class).receiveEvent(
-//            this.getId(),
-//            "topChange",
-//            event
-//        );
+        eventEmitter.dispatch(new LinkPressedEvent(eventEmitter.getSurfaceId(), getId(), uri));
     }
 
     /**
@@ -555,15 +1031,6 @@ public class PdfView extends PDFView implements OnPageChangeListener,OnLoadCompl
         Log.d("PdfView", str);
     }
 
-    private Uri getURI(final String uri) {
-        Uri parsed = Uri.parse(uri);
-
-        if (parsed.getScheme() == null || parsed.getScheme().isEmpty()) {
-          return Uri.fromFile(new File(uri));
-        }
-        return parsed;
-    }
-
     private void setTouchesEnabled(final boolean enabled) {
         setTouchesEnabled(this, enabled);
     }
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.facebook.react.bridge.LifecycleEventListener;
+import com.facebook.react.uimanager.ThemedReactContext;
+
+/**
+ * Released PdfViews kept for the next createViewInstance, so carousels and lists of pdf
+ * cards don't build a PDFView (and its Pdfium core, render thread and gesture managers) per
+ * mounted item. Off until setMaxViews; pooled views hold no document or bitmaps, only
+ * the objects a new view would allocate again.
+ *
+ * A view is only handed back to the React context that built it, and a context's views
+ * are let go of when its host is destroyed. Main thread only.
+ */
+public class PdfViewPool {
+
+    private static int maxViews = 0;
+    // most recently released last
+    private static final List<PdfView> views = new ArrayList<>();
+    private static final List<ThemedReactContext> watchedContexts = new ArrayList<>();
+
+    public static PdfView obtain(ThemedReactContext context) {
+        PdfView view = take(context);
+        return view != null ? view : new PdfView(context, null);
+    }
+
+    // a pooled view of context, null when there is none (or the pool is off)
+    static PdfView take(ThemedReactContext context) {
+        if (maxViews == 0) {
+            return null;
+        }
+        for (int i = views.size() - 1; i >= 0; i--) {
+            PdfView view = views.get(i);
+            // React may drop a view before it took it out of its parent
+            if (view.getContext() == context && view.getParent() == null) {
+                views.remove(i);
+                PdfMetrics.increment("viewPool.hits");
+                return view;
+            }
+        }
+        PdfMetrics.increment("viewPool.misses");
+        return null;
+    }
+
+    /**
+     * Resets a released view and keeps it, dropping the oldest when the pool is full.
+     *
+     * @return false when the pool is off and the view was left alone
+     */
+    static boolean recycle(PdfView view) {
+        if (maxViews == 0 || !(view.getContext() instanceof ThemedReactContext)) {
+            return false;
+        }
+        view.reset();
+        views.add(view);
+        while (views.size() > maxViews) {
+            views.remove(0);
+        }
+        watch((ThemedReactContext) view.getContext());
+        return true;
+    }
+
+    public static void setMaxViews(int maxViews) {
+        PdfViewPool.maxViews = Math.max(maxViews, 0);
+        while (views.size() > PdfViewPool.maxViews) {
+            views.remove(0);
+        }
+    }
+
+    // Under memory pressure, new views are cheaper than the heap the pooled ones keep.
+    public static void clear() {
+        views.clear();
+    }
+
+    static int size() {
+        return views.size();
+    }
+
+    private static void watch(final ThemedReactContext context) {
+        if (watchedContexts.contains(context)) {
+            return;
+        }
+        watchedContexts.add(context);
+        context.addLifecycleEventListener(new LifecycleEventListener() {
+            @Override
+            public void onHostResume() {
+            }
+
+            @Override
+            public void onHostPause() {
+            }
+
+            @Override
+            public void onHostDestroy() {
+                context.removeLifecycleEventListener(this);
+                watchedContexts.remove(context);
+                Iterator<PdfView> iterator = views.iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().getContext() == context) {
+                        iterator.remove();
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+
+import io.legere.pdfiumandroid.PdfDocument;
+import io.legere.pdfiumandroid.PdfiumCore;
+import io.legere.pdfiumandroid.util.Config;
+import io.legere.pdfiumandroid.util.ConfigKt;
+import io.legere.pdfiumandroid.util.AlreadyClosedBehavior;
+import io.legere.pdfiumandroid.DefaultLogger;
+
+/**
+ * Process-wide Pdfium setup shared by PdfView and the native modules that open
+ * documents outside of the viewer (PdfManagerModule, RCTPdfPageView).
+ */
+public class PdfiumHolder {
+
+    private static boolean configured = false;
+    private static PdfiumCore pdfiumCore;
+
+    public static synchronized void setupConfig() {
+        if (!configured) {
+            ConfigKt.setPdfiumConfig(new Config(new DefaultLogger(), AlreadyClosedBehavior.IGNORE));
+            configured = true;
+        }
+    }
+
+    public static synchronized PdfiumCore getCore(Context context) {
+        setupConfig();
+        if (pdfiumCore == null) {
+            pdfiumCore = new PdfiumCore(context.getApplicationContext(), new Config(new DefaultLogger(), AlreadyClosedBehavior.IGNORE));
+        }
+        return pdfiumCore;
+    }
+
+    // Pdfium keeps the descriptor for the lifetime of the document and closes it in PdfDocument.close().
+    public static PdfDocument openDocument(Context context, String path, String password) throws IOException {
+        ParcelFileDescriptor fd;
+        if (path.startsWith("content://")) {
+            fd = openContentFd(context, Uri.parse(path));
+        } else {
+            fd = ParcelFileDescriptor.open(getFile(path), ParcelFileDescriptor.MODE_READ_ONLY);
+        }
+        try {
+            return getCore(context).newDocument(fd, password);
+        } catch (Exception e) {
+            fd.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Seekable descriptor for a content uri. Providers that stream through a pipe (statSize
+     * is unknown) are spooled to an unlinked temp file first, Pdfium needs random access.
+     */
+    public static ParcelFileDescriptor openContentFd(Context context, Uri uri) throws IOException {
+        ParcelFileDescriptor fd = context.getContentResolver().openFileDescriptor(uri, "r");
+        if (fd == null) {
+            throw new IOException("Unable to open " + uri);
+        }
+        if (fd.getStatSize() >= 0) {
+            return fd;
+        }
+
+        File spool = File.createTempFile("rnpdf-", ".pdf", context.getCacheDir());
+        try {
+            try (InputStream input = new ParcelFileDescriptor.AutoCloseInputStream(fd);
+                 OutputStream output = new FileOutputStream(spool)) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = input.read(buffer)) >= 0) {
+                    output.write(buffer, 0, read);
+                }
+            }
+            return ParcelFileDescriptor.open(spool, ParcelFileDescriptor.MODE_READ_ONLY);
+        } finally {
+            // the open descriptor keeps the data readable until Pdfium closes it
+            spool.delete();
+        }
+    }
+
+    public static File getFile(String path) {
+        Uri parsed = Uri.parse(path);
+        if (parsed.getScheme() == null || parsed.getScheme().isEmpty()) {
+            return new File(path);
+        }
+        return new File(parsed.getPath());
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+/**
+ * Prop changes of a PdfView since they were last applied, by what they cost: a new
+ * document, a new layout (PDFView bakes spacing, orientation, fit, gestures and the pages
+ * it shows into its load), or just moving the viewport. Setters mark what changed and one
+ * apply is posted per update transaction, however many props it carried.
+ */
+class PropChanges {
+    static final int DOCUMENT = 1;
+    static final int LAYOUT = 1 << 1;
+    static final int PAGE = 1 << 2;
+    static final int SCALE = 1 << 3;
+    // the pageRange window. PDFView fixes its pages at load and closes the document when it
+    // loads again, so a new window opens and parses the file again, like a new document;
+    // only the pages of the new window are measured
+    static final int RANGE = 1 << 4;
+
+    interface Target {
+        // runs apply on the main thread once the current transaction is done
+        void post(Runnable apply);
+
+        void apply(int changes);
+    }
+
+    private final Target target;
+    private final Runnable applyRunnable = this::apply;
+    private int changes = 0;
+    private boolean posted = false;
+
+    PropChanges(Target target) {
+        this.target = target;
+    }
+
+    void mark(int change) {
+        changes |= change;
+        schedule();
+    }
+
+    // posts an apply unless one is already on its way or nothing changed
+    void schedule() {
+        if (!posted && changes != 0) {
+            posted = true;
+            target.post(applyRunnable);
+        }
+    }
+
+    // whether PDFView has to load the document again for changes
+    static boolean needsReload(int changes) {
+        return (changes & (DOCUMENT | LAYOUT | RANGE)) != 0;
+    }
+
+    private void apply() {
+        posted = false;
+        int applied = changes;
+        changes = 0;
+        target.apply(applied);
+    }
+}
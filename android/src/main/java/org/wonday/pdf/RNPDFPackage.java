@@ -22,7 +22,10 @@ public class RNPDFPackage implements ReactPackage {
 
     @Override
     public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
-        return Collections.emptyList();
+        List<NativeModule> modules = new ArrayList<>();
+        modules.add(new PdfManagerModule(reactContext));
+        modules.add(new PdfCacheModule(reactContext));
+        return modules;
     }
 
     // Deprecated as of RN 0.47.0
@@ -34,6 +37,7 @@ public class RNPDFPackage implements ReactPackage {
     public List<ViewManager> createViewManagers(ReactApplicationContext reactContext) {
         List<ViewManager> modules = new ArrayList<>();
         modules.add(new PdfManager(reactContext));
+        modules.add(new PdfPageViewManager());
         return modules;
     }
 }
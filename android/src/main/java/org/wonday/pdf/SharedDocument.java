@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import io.legere.pdfiumandroid.PdfDocument;
+
+/**
+ * Lends the document a PdfView handed to PDFView to the view's background helpers
+ * (prefetched previews, text selection), so they work on the same parse instead of
+ * opening the file a second time through PdfDocumentCache.
+ *
+ * PDFView closes the document on recycle, PdfView closes this first: later borrows get
+ * null and close waits for the pages borrowed at that moment to be given back. Helpers
+ * borrow one page of work at a time, so that wait is short.
+ */
+class SharedDocument {
+
+    private final PdfDocument document;
+    private final int pageCount;
+    private int borrowers = 0;
+    private boolean closed = false;
+
+    SharedDocument(PdfDocument document) {
+        this.document = document;
+        this.pageCount = document.getPageCount();
+    }
+
+    int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * @return the document, to be given back when done, or null once it was closed
+     */
+    synchronized PdfDocument borrow() {
+        if (closed) {
+            return null;
+        }
+        borrowers++;
+        return document;
+    }
+
+    synchronized void giveBack() {
+        borrowers--;
+        notifyAll();
+    }
+
+    // Stops lending the document, returns once nobody is using it anymore.
+    synchronized void close() {
+        closed = true;
+        boolean interrupted = false;
+        while (borrowers > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Native side of the transformFile prop: streams a stored (e.g. encrypted) file through
+ * the app's Transformer into a ".view" file next to it, in fixed size chunks, so memory
+ * use doesn't grow with the document.
+ *
+ * The app registers its transformer once, typically in MainApplication.onCreate:
+ *
+ *     ViewFileTransformer.setTransformer(stored -> new CipherInputStream(stored, cipher));
+ */
+public class ViewFileTransformer {
+
+    public interface Transformer {
+        /**
+         * Wraps the stream of the stored file into a stream of the plain pdf.
+         */
+        InputStream openReadStream(InputStream stored) throws IOException;
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static volatile Transformer transformer;
+
+    public static void setTransformer(Transformer transformer) {
+        ViewFileTransformer.transformer = transformer;
+    }
+
+    public static boolean hasTransformer() {
+        return transformer != null;
+    }
+
+    public static File getViewFile(File source) {
+        return new File(source.getPath() + ".view");
+    }
+
+    public static File transform(File source) throws IOException {
+        Transformer current = transformer;
+        if (current == null) {
+            throw new IllegalStateException("No transformer set, see ViewFileTransformer.setTransformer");
+        }
+
+        File viewFile = getViewFile(source);
+        File temp = new File(viewFile.getPath() + ".tmp");
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream file = new FileInputStream(source);
+             InputStream input = current.openReadStream(file);
+             OutputStream output = new FileOutputStream(temp)) {
+            int read;
+            while ((read = input.read(buffer)) >= 0) {
+                output.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            temp.delete();
+            throw e;
+        }
+        if ((viewFile.exists() && !viewFile.delete()) || !temp.renameTo(viewFile)) {
+            temp.delete();
+            throw new IOException("Unable to write " + viewFile);
+        }
+        return viewFile;
+    }
+
+    public static void release(File viewFile) {
+        viewFile.delete();
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf.events;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+public class ErrorEvent extends TopChangeEvent {
+    private final String message;
+
+    public ErrorEvent(int surfaceId, int viewTag, String message) {
+        super(surfaceId, viewTag);
+        this.message = message;
+    }
+
+    @Nullable
+    @Override
+    protected WritableMap getEventData() {
+        WritableMap data = Arguments.createMap();
+        data.putString("event", "error");
+        data.putString("message", message);
+        return data;
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf.events;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+public class LinkPressedEvent extends TopChangeEvent {
+    private final String uri;
+
+    public LinkPressedEvent(int surfaceId, int viewTag, String uri) {
+        super(surfaceId, viewTag);
+        this.uri = uri;
+    }
+
+    @Nullable
+    @Override
+    protected WritableMap getEventData() {
+        WritableMap data = Arguments.createMap();
+        data.putString("event", "linkPressed");
+        data.putString("uri", uri);
+        return data;
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf.events;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+public class LoadCompleteEvent extends TopChangeEvent {
+    private final int numberOfPages;
+    private final float width;
+    private final float height;
+
+    public LoadCompleteEvent(int surfaceId, int viewTag, int numberOfPages, float width, float height) {
+        super(surfaceId, viewTag);
+        this.numberOfPages = numberOfPages;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Nullable
+    @Override
+    protected WritableMap getEventData() {
+        WritableMap data = Arguments.createMap();
+        data.putString("event", "loadComplete");
+        data.putInt("numberOfPages", numberOfPages);
+        data.putDouble("width", width);
+        data.putDouble("height", height);
+        return data;
+    }
+}
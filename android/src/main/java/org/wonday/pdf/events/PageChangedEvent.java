@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf.events;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+// page start from 1
+public class PageChangedEvent extends TopChangeEvent {
+    private final int page;
+    private final int numberOfPages;
+
+    public PageChangedEvent(int surfaceId, int viewTag, int page, int numberOfPages) {
+        super(surfaceId, viewTag, PdfEventEmitter.KIND_PAGE);
+        this.page = page;
+        this.numberOfPages = numberOfPages;
+    }
+
+    @Nullable
+    @Override
+    protected WritableMap getEventData() {
+        WritableMap data = Arguments.createMap();
+        data.putString("event", "pageChanged");
+        data.putInt("page", page);
+        data.putInt("numberOfPages", numberOfPages);
+        return data;
+    }
+}
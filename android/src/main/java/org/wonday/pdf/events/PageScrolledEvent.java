@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf.events;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+// positionOffset is the scroll position in the whole document, from 0 to 1
+public class PageScrolledEvent extends TopChangeEvent {
+    private final int page;
+    private final float positionOffset;
+
+    public PageScrolledEvent(int surfaceId, int viewTag, int page, float positionOffset) {
+        super(surfaceId, viewTag, PdfEventEmitter.KIND_SCROLL);
+        this.page = page;
+        this.positionOffset = positionOffset;
+    }
+
+    @Nullable
+    @Override
+    protected WritableMap getEventData() {
+        WritableMap data = Arguments.createMap();
+        data.putString("event", "pageScrolled");
+        data.putInt("page", page);
+        data.putDouble("positionOffset", positionOffset);
+        return data;
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf.events;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+public class PageSingleTapEvent extends TopChangeEvent {
+    private final int page;
+    private final float x;
+    private final float y;
+
+    public PageSingleTapEvent(int surfaceId, int viewTag, int page, float x, float y) {
+        super(surfaceId, viewTag);
+        this.page = page;
+        this.x = x;
+        this.y = y;
+    }
+
+    @Nullable
+    @Override
+    protected WritableMap getEventData() {
+        WritableMap data = Arguments.createMap();
+        data.putString("event", "pageSingleTap");
+        data.putInt("page", page);
+        data.putDouble("x", x);
+        data.putDouble("y", y);
+        return data;
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf.events;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.View;
+
+import com.facebook.react.bridge.ReactContext;
+import com.facebook.react.uimanager.UIManagerHelper;
+import com.facebook.react.uimanager.events.EventDispatcher;
+
+/**
+ * Sends topChange events for one view.
+ *
+ * One-off events (load, error, tap, link) go out immediately. Continuous events (page,
+ * scale, scroll) are throttled per kind: only the latest value is kept, and it is flushed
+ * at most once per interval from a single main-thread handler shared by all views, so a
+ * pinch or fling produces at most one event of each kind per frame and the final value
+ * is always delivered.
+ */
+public class PdfEventEmitter {
+    public static final short KIND_PAGE = 0;
+    public static final short KIND_SCALE = 1;
+    public static final short KIND_SCROLL = 2;
+    private static final int KIND_COUNT = 3;
+
+    public static final int DEFAULT_INTERVAL_MS = 16;
+
+    // the main looper's clock and queue, replaced by a manual one on the host JVM
+    interface Scheduler {
+        long uptimeMillis();
+
+        void postAtTime(Runnable runnable, long uptimeMillis);
+
+        void removeCallbacks(Runnable runnable);
+    }
+
+    private static Scheduler mainScheduler;
+
+    private final View view;
+    private final Scheduler scheduler;
+    private int intervalMs = DEFAULT_INTERVAL_MS;
+
+    private final TopChangeEvent[] pending = new TopChangeEvent[KIND_COUNT];
+    private final long[] lastSent = new long[KIND_COUNT];
+    private boolean flushScheduled = false;
+    private final Runnable flushRunnable = this::flush;
+
+    public PdfEventEmitter(View view) {
+        this(view, getMainScheduler());
+    }
+
+    PdfEventEmitter(View view, Scheduler scheduler) {
+        this.view = view;
+        this.scheduler = scheduler;
+    }
+
+    private static synchronized Scheduler getMainScheduler() {
+        if (mainScheduler == null) {
+            final Handler handler = new Handler(Looper.getMainLooper());
+            mainScheduler = new Scheduler() {
+                @Override
+                public long uptimeMillis() {
+                    return SystemClock.uptimeMillis();
+                }
+
+                @Override
+                public void postAtTime(Runnable runnable, long uptimeMillis) {
+                    handler.postAtTime(runnable, uptimeMillis);
+                }
+
+                @Override
+                public void removeCallbacks(Runnable runnable) {
+                    handler.removeCallbacks(runnable);
+                }
+            };
+        }
+        return mainScheduler;
+    }
+
+    public void setIntervalMs(int intervalMs) {
+        this.intervalMs = Math.max(intervalMs, 0);
+    }
+
+    public int getSurfaceId() {
+        return UIManagerHelper.getSurfaceId(view);
+    }
+
+    public void dispatch(TopChangeEvent event) {
+        EventDispatcher dispatcher = getDispatcher();
+        if (dispatcher != null) {
+            dispatcher.dispatchEvent(event);
+        }
+    }
+
+    // the event's coalescing key (one of the KIND_* constants) selects the throttling slot
+    public void dispatchThrottled(TopChangeEvent event) {
+        pending[event.getCoalescingKey()] = event;
+        scheduleFlush();
+    }
+
+    // drop anything not yet sent, e.g. when a new document is loaded into the view
+    public void cancel() {
+        scheduler.removeCallbacks(flushRunnable);
+        flushScheduled = false;
+        for (int kind = 0; kind < KIND_COUNT; kind++) {
+            pending[kind] = null;
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled) {
+            return;
+        }
+        long now = scheduler.uptimeMillis();
+        long next = Long.MAX_VALUE;
+        for (int kind = 0; kind < KIND_COUNT; kind++) {
+            if (pending[kind] != null) {
+                next = Math.min(next, lastSent[kind] + intervalMs);
+            }
+        }
+        if (next == Long.MAX_VALUE) {
+            return;
+        }
+        flushScheduled = true;
+        // always posted, never sent from inside the viewer callback that produced it
+        scheduler.postAtTime(flushRunnable, Math.max(next, now));
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        long now = scheduler.uptimeMillis();
+        EventDispatcher dispatcher = getDispatcher();
+        for (int kind = 0; kind < KIND_COUNT; kind++) {
+            TopChangeEvent event = pending[kind];
+            if (event == null || now < lastSent[kind] + intervalMs) {
+                continue;
+            }
+            pending[kind] = null;
+            lastSent[kind] = now;
+            if (dispatcher != null) {
+                dispatcher.dispatchEvent(event);
+            }
+        }
+        scheduleFlush();
+    }
+
+    // overridden on the host JVM, where there is no React instance to look it up in
+    EventDispatcher getDispatcher() {
+        return UIManagerHelper.getEventDispatcherForReactTag((ReactContext) view.getContext(), view.getId());
+    }
+}
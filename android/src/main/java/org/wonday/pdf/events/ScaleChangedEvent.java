@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf.events;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+public class ScaleChangedEvent extends TopChangeEvent {
+    private final float scale;
+
+    public ScaleChangedEvent(int surfaceId, int viewTag, float scale) {
+        super(surfaceId, viewTag, PdfEventEmitter.KIND_SCALE);
+        this.scale = scale;
+    }
+
+    @Nullable
+    @Override
+    protected WritableMap getEventData() {
+        WritableMap data = Arguments.createMap();
+        data.putString("event", "scaleChanged");
+        data.putDouble("scale", scale);
+        return data;
+    }
+}
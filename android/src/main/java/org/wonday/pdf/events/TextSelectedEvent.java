@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf.events;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+public class TextSelectedEvent extends TopChangeEvent {
+    private final int page;
+    private final String text;
+
+    public TextSelectedEvent(int surfaceId, int viewTag, int page, String text) {
+        super(surfaceId, viewTag);
+        this.page = page;
+        this.text = text;
+    }
+
+    @Nullable
+    @Override
+    protected WritableMap getEventData() {
+        WritableMap data = Arguments.createMap();
+        data.putString("event", "textSelected");
+        data.putInt("page", page);
+        data.putString("text", text);
+        return data;
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf.events;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+public class TextSelectionClearedEvent extends TopChangeEvent {
+
+    public TextSelectionClearedEvent(int surfaceId, int viewTag) {
+        super(surfaceId, viewTag);
+    }
+
+    @Nullable
+    @Override
+    protected WritableMap getEventData() {
+        WritableMap data = Arguments.createMap();
+        data.putString("event", "textSelectionCleared");
+        return data;
+    }
+}
@@ -5,12 +5,31 @@ import androidx.annotation.Nullable;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.uimanager.events.Event;
 
+/**
+ * Base of all PdfView events. Subclasses keep their values as plain fields and only build
+ * the payload map in getEventData, so an event replaced by a newer one while queued never
+ * allocates a map.
+ */
 public class TopChangeEvent extends Event<TopChangeEvent> {
+    // events with the same key on the same view replace each other while queued, -1 never coalesces
+    public static final short NO_COALESCING = -1;
+
     private WritableMap eventData;
+    private final short coalescingKey;
 
     public TopChangeEvent(int surfaceId, int viewTag, WritableMap data) {
         super(surfaceId, viewTag);
         eventData = data;
+        coalescingKey = NO_COALESCING;
+    }
+
+    protected TopChangeEvent(int surfaceId, int viewTag) {
+        this(surfaceId, viewTag, NO_COALESCING);
+    }
+
+    protected TopChangeEvent(int surfaceId, int viewTag, short coalescingKey) {
+        super(surfaceId, viewTag);
+        this.coalescingKey = coalescingKey;
     }
 
     @Override
@@ -20,7 +39,12 @@ public class TopChangeEvent extends Event<TopChangeEvent> {
 
     @Override
     public boolean canCoalesce() {
-        return false;
+        return coalescingKey != NO_COALESCING;
+    }
+
+    @Override
+    public short getCoalescingKey() {
+        return coalescingKey;
     }
 
     @Nullable
@@ -12,6 +12,7 @@ package com.facebook.react.viewmanagers;
 import android.view.View;
 import androidx.annotation.Nullable;
 import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.uimanager.BaseViewManagerDelegate;
 import com.facebook.react.uimanager.BaseViewManager;
 import com.facebook.react.uimanager.LayoutShadowNode;
@@ -80,6 +81,36 @@ public class RNPDFPdfViewManagerDelegate<T extends View, U extends BaseViewManag
       case "singlePage":
         mViewManager.setSinglePage(view, value == null ? false : (boolean) value);
         break;
+      case "retainOnDetach":
+        mViewManager.setRetainOnDetach(view, value == null ? 0 : ((Double) value).intValue());
+        break;
+      case "eventThrottleInterval":
+        mViewManager.setEventThrottleInterval(view, value == null ? 16 : ((Double) value).intValue());
+        break;
+      case "prefetchPagesAhead":
+        mViewManager.setPrefetchPagesAhead(view, value == null ? 0 : ((Double) value).intValue());
+        break;
+      case "prefetchPagesBehind":
+        mViewManager.setPrefetchPagesBehind(view, value == null ? 0 : ((Double) value).intValue());
+        break;
+      case "prefetchResolution":
+        mViewManager.setPrefetchResolution(view, value == null ? 0f : ((Double) value).floatValue());
+        break;
+      case "cacheSizeMB":
+        mViewManager.setCacheSizeMB(view, value == null ? 0 : ((Double) value).intValue());
+        break;
+      case "previewQuality":
+        mViewManager.setPreviewQuality(view, value == null ? null : (String) value);
+        break;
+      case "highlights":
+        mViewManager.setHighlights(view, (ReadableArray) value);
+        break;
+      case "enableTextSelection":
+        mViewManager.setEnableTextSelection(view, value == null ? false : (boolean) value);
+        break;
+      case "pageRange":
+        mViewManager.setPageRange(view, (ReadableMap) value);
+        break;
       default:
         super.setProperty(view, propName, value);
     }
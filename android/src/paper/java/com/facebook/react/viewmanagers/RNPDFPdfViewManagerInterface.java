@@ -11,6 +11,8 @@ package com.facebook.react.viewmanagers;
 
 import android.view.View;
 import androidx.annotation.Nullable;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
 
 public interface RNPDFPdfViewManagerInterface<T extends View> {
   void setPath(T view, @Nullable String value);
@@ -32,5 +34,15 @@ public interface RNPDFPdfViewManagerInterface<T extends View> {
   void setSpacing(T view, int value);
   void setPassword(T view, @Nullable String value);
   void setSinglePage(T view, boolean value);
+  void setRetainOnDetach(T view, int value);
+  void setEventThrottleInterval(T view, int value);
+  void setPrefetchPagesAhead(T view, int value);
+  void setPrefetchPagesBehind(T view, int value);
+  void setPrefetchResolution(T view, float value);
+  void setCacheSizeMB(T view, int value);
+  void setPreviewQuality(T view, @Nullable String value);
+  void setHighlights(T view, @Nullable ReadableArray value);
+  void setEnableTextSelection(T view, boolean value);
+  void setPageRange(T view, @Nullable ReadableMap value);
   void setNativePage(T view, int page);
 }
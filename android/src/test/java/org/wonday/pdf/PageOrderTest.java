@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PageOrderTest {
+
+    @Test
+    public void allPagesMapToThemselves() {
+        PageOrder order = PageOrder.ALL;
+        assertTrue(order.isAll());
+        assertNull(order.getDocumentPages());
+        assertEquals(0, order.getDocumentPage(0));
+        assertEquals(41, order.getDocumentPage(41));
+        assertEquals(41, order.getViewPage(41));
+    }
+
+    @Test
+    public void reversed() {
+        PageOrder order = PageOrder.reversed(5);
+        assertArrayEquals(new int[] {4, 3, 2, 1, 0}, order.getDocumentPages());
+        for (int page = 0; page < 5; page++) {
+            assertEquals(page, order.getViewPage(order.getDocumentPage(page)));
+        }
+        assertEquals(-1, order.getViewPage(5));
+    }
+
+    @Test
+    public void range() {
+        PageOrder order = PageOrder.range(9, 1);
+        assertArrayEquals(new int[] {9}, order.getDocumentPages());
+        assertEquals(9, order.getDocumentPage(0));
+        assertEquals(0, order.getViewPage(9));
+        assertEquals(-1, order.getViewPage(8));
+        assertEquals(-1, order.getViewPage(10));
+    }
+
+    @Test
+    public void reversedWindow() {
+        PageOrder order = PageOrder.range(100, 3, true);
+        assertArrayEquals(new int[] {102, 101, 100}, order.getDocumentPages());
+        assertEquals(2, order.getViewPage(100));
+        assertEquals(-1, order.getViewPage(99));
+    }
+
+    @Test
+    public void nearestViewPage() {
+        PageOrder window = PageOrder.range(100, 50);
+        assertEquals(0, window.getNearestViewPage(3));
+        assertEquals(20, window.getNearestViewPage(120));
+        assertEquals(49, window.getNearestViewPage(4999));
+        assertEquals(49, PageOrder.range(100, 50, true).getNearestViewPage(0));
+        assertEquals(0, PageOrder.ALL.getNearestViewPage(-1));
+    }
+
+    @Test
+    public void pagesOutsideOfTheOrderMapToThemselves() {
+        assertEquals(7, PageOrder.reversed(5).getDocumentPage(7));
+        assertEquals(-1, PageOrder.range(3, 2).getDocumentPage(-1));
+    }
+}
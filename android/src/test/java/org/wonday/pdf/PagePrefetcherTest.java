@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import android.graphics.Bitmap;
+import android.util.SizeF;
+
+import io.legere.pdfiumandroid.PdfDocument;
+import io.legere.pdfiumandroid.PdfPage;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PagePrefetcherTest {
+
+    @After
+    public void tearDown() {
+        PdfBitmapPool.clear();
+    }
+
+    // the pool hands these out, the mockable android jar can't create bitmaps
+    private static void poolBitmap() {
+        Bitmap bitmap = mock(Bitmap.class);
+        when(bitmap.getWidth()).thenReturn(1);
+        when(bitmap.getHeight()).thenReturn(1);
+        when(bitmap.isMutable()).thenReturn(true);
+        when(bitmap.getAllocationByteCount()).thenReturn(4);
+        PdfBitmapPool.put(bitmap);
+    }
+
+    private static PdfDocument createDocument() {
+        PdfDocument document = mock(PdfDocument.class);
+        when(document.getPageCount()).thenReturn(3);
+        when(document.openPage(anyInt())).thenReturn(mock(PdfPage.class));
+        return document;
+    }
+
+    @Test
+    public void newDocumentIsRenderedWhileTheLastRenderFinishes() throws InterruptedException {
+        poolBitmap();
+        poolBitmap();
+        PdfView view = mock(PdfView.class);
+        when(view.getPageSize(anyInt())).thenReturn(mock(SizeF.class));
+        PagePrefetcher prefetcher = new PagePrefetcher(view);
+
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        PdfDocument oldDocument = createDocument();
+        when(oldDocument.openPage(anyInt())).thenAnswer(invocation -> {
+            rendering.countDown();
+            finish.await(5, TimeUnit.SECONDS);
+            return mock(PdfPage.class);
+        });
+        prefetcher.reset("/data/old.pdf", new SharedDocument(oldDocument), PageOrder.ALL);
+        prefetcher.schedule(0, 0, 1);
+        assertTrue(rendering.await(5, TimeUnit.SECONDS));
+
+        PdfDocument newDocument = createDocument();
+        prefetcher.clear();
+        prefetcher.reset("/data/new.pdf", new SharedDocument(newDocument), PageOrder.ALL);
+        prefetcher.schedule(1, 1, 1);
+        finish.countDown();
+
+        verify(newDocument, timeout(5000)).openPage(1);
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import android.content.Context;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PdfDiskCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    static Context createContext(File cacheDir) {
+        Context context = mock(Context.class);
+        when(context.getApplicationContext()).thenReturn(context);
+        when(context.getCacheDir()).thenReturn(cacheDir);
+        return context;
+    }
+
+    static File createFile(File directory, String name, int size) throws IOException {
+        File file = new File(directory, name);
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(new byte[size]);
+        }
+        return file;
+    }
+
+    // PdfDiskCache is a process-wide singleton, so this is its only test
+    @Test
+    public void evictsLeastRecentlyUsedButKeepsTheNewFile() throws Exception {
+        File directory = folder.newFolder();
+        PdfDiskCache cache = PdfDiskCache.get(createContext(directory));
+        cache.setMaxBytes(250);
+
+        File a = createFile(directory, "a.pdf", 100);
+        File b = createFile(directory, "b.pdf", 100);
+        File c = createFile(directory, "c.pdf", 100);
+        cache.recordDownload(a.getPath(), "https://example.com/a", "\"a\"", null);
+        Thread.sleep(5);
+        cache.recordDownload(b.getPath(), "https://example.com/b", null, null);
+        Thread.sleep(5);
+        PdfDiskCache.Entry hit = cache.lookup(a.getPath(), "https://example.com/a");
+        assertNotNull(hit);
+        assertTrue(hit.canRevalidate());
+        cache.recordHit(hit, false, null, null);
+        Thread.sleep(5);
+        cache.recordDownload(c.getPath(), "https://example.com/c", null, null);
+
+        assertNull(cache.lookup(b.getPath(), "https://example.com/b"));
+        assertFalse(b.exists());
+        assertNotNull(cache.lookup(a.getPath(), "https://example.com/a"));
+        assertNotNull(cache.lookup(c.getPath(), "https://example.com/c"));
+        assertEquals(1, (long) cache.getStats().get("evictions"));
+        assertEquals(200, (long) cache.getStats().get("size"));
+
+        // a file alone larger than the quota stays until the next one arrives
+        cache.setMaxBytes(50);
+        File d = createFile(directory, "d.pdf", 100);
+        cache.recordDownload(d.getPath(), "https://example.com/d", null, null);
+        assertNotNull(cache.lookup(d.getPath(), "https://example.com/d"));
+        assertEquals(1, (long) cache.getStats().get("count"));
+
+        // a different url for the same path is a miss
+        assertNull(cache.lookup(d.getPath(), "https://example.com/other"));
+    }
+}
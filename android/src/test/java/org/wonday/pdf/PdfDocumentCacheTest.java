@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.io.IOException;
+
+import android.content.Context;
+
+import io.legere.pdfiumandroid.PdfDocument;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.MockedStatic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+
+public class PdfDocumentCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Context context = mock(Context.class);
+    private MockedStatic<PdfiumHolder> pdfiumHolder;
+    private String path;
+
+    @Before
+    public void setUp() throws IOException {
+        File file = folder.newFile("test.pdf");
+        path = file.getPath();
+        pdfiumHolder = mockStatic(PdfiumHolder.class);
+        pdfiumHolder.when(() -> PdfiumHolder.getFile(path)).thenReturn(file);
+        pdfiumHolder.when(() -> PdfiumHolder.openDocument(any(Context.class), anyString(), any()))
+                .thenAnswer(invocation -> mock(PdfDocument.class));
+    }
+
+    @After
+    public void tearDown() {
+        PdfDocumentCache.setMaxDocuments(0);
+        PdfDocumentCache.setMaxDocuments(4);
+        pdfiumHolder.close();
+    }
+
+    @Test
+    public void samePasswordSharesTheDocument() throws IOException {
+        PdfDocumentCache.Handle first = PdfDocumentCache.acquire(context, path, "secret");
+        PdfDocumentCache.Handle second = PdfDocumentCache.acquire(context, path, "secret");
+
+        assertSame(first.getDocument(), second.getDocument());
+        first.release();
+        second.release();
+    }
+
+    @Test
+    public void passwordsWithTheSameHashCodeOpenTheirOwnDocument() throws IOException {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+
+        PdfDocumentCache.Handle first = PdfDocumentCache.acquire(context, path, "Aa");
+        PdfDocumentCache.Handle second = PdfDocumentCache.acquire(context, path, "BB");
+
+        assertNotSame(first.getDocument(), second.getDocument());
+        first.release();
+        second.release();
+    }
+}
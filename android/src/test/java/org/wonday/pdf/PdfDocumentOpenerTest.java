@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import io.legere.pdfiumandroid.PdfDocument;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Drives the open thread and the main looper by hand to interleave the opens of a PdfView
+ * whose path changes faster than documents open, as in a pager swiped quickly.
+ */
+public class PdfDocumentOpenerTest {
+
+    private final Queue<Runnable> background = new ArrayDeque<>();
+    private final Queue<Runnable> main = new ArrayDeque<>();
+    private final Map<String, PdfDocument> documents = new HashMap<>();
+    private final List<String> opened = new ArrayList<>();
+    private final List<PdfDocument> delivered = new ArrayList<>();
+    private final List<Exception> errors = new ArrayList<>();
+    private PdfDocumentOpener opener;
+
+    @Before
+    public void setUp() {
+        opener = new PdfDocumentOpener(background::add, main::add, new PdfDocumentOpener.Target() {
+            @Override
+            public PdfDocument open(String path, String password) throws IOException {
+                opened.add(path);
+                if (path.startsWith("broken")) {
+                    throw new IOException("broken");
+                }
+                PdfDocument document = mock(PdfDocument.class);
+                documents.put(path, document);
+                return document;
+            }
+
+            @Override
+            public void onOpened(PdfDocument document) {
+                delivered.add(document);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                errors.add(e);
+            }
+        });
+    }
+
+    private static void run(Queue<Runnable> queue) {
+        Runnable runnable;
+        while ((runnable = queue.poll()) != null) {
+            runnable.run();
+        }
+    }
+
+    private void runAll() {
+        while (!background.isEmpty() || !main.isEmpty()) {
+            run(background);
+            run(main);
+        }
+    }
+
+    @Test
+    public void queuedStaleOpensAreSkipped() {
+        opener.open("a.pdf", "");
+        opener.open("b.pdf", "");
+        opener.open("c.pdf", "");
+        runAll();
+
+        assertEquals(1, opened.size());
+        assertEquals(1, delivered.size());
+        assertSame(documents.get("c.pdf"), delivered.get(0));
+        assertFalse(opener.isPending());
+    }
+
+    @Test
+    public void documentOfAStaleOpenIsClosedNotDelivered() {
+        opener.open("a.pdf", "");
+        run(background);
+        // a.pdf is open, its delivery is still queued on the main looper
+        opener.open("b.pdf", "");
+        runAll();
+
+        verify(documents.get("a.pdf")).close();
+        verify(documents.get("b.pdf"), never()).close();
+        assertEquals(1, delivered.size());
+        assertSame(documents.get("b.pdf"), delivered.get(0));
+    }
+
+    @Test
+    public void theSameDocumentIsNotOpenedTwiceWhileOnItsWay() {
+        assertTrue(opener.open("a.pdf", ""));
+        assertFalse(opener.open("a.pdf", ""));
+        assertTrue(opener.open("a.pdf", "secret"));
+        runAll();
+
+        assertEquals(1, opened.size());
+        assertEquals(1, delivered.size());
+        // once delivered, the next open is a new load
+        assertTrue(opener.open("a.pdf", "secret"));
+    }
+
+    @Test
+    public void cancelledOpensDeliverNothing() {
+        opener.open("a.pdf", "");
+        run(background);
+        opener.cancel();
+        runAll();
+
+        assertTrue(delivered.isEmpty());
+        verify(documents.get("a.pdf")).close();
+        assertFalse(opener.isPending());
+    }
+
+    @Test
+    public void onlyTheLatestFailureIsReported() {
+        opener.open("broken-a.pdf", "");
+        run(background);
+        opener.open("broken-b.pdf", "");
+        runAll();
+
+        assertEquals(1, errors.size());
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    public void generationTellsLoadsApart() {
+        opener.open("a.pdf", "");
+        runAll();
+        int generation = opener.getGeneration();
+        assertTrue(opener.isCurrent(generation));
+
+        opener.open("b.pdf", "");
+        assertFalse(opener.isCurrent(generation));
+    }
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs PdfDownloader against an HTTP server on the loopback interface.
+ */
+public class PdfDownloaderTest {
+
+    private static final byte[] BODY = new byte[200 * 1024];
+
+    static {
+        for (int i = 0; i < BODY.length; i++) {
+            BODY[i] = (byte) i;
+        }
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private HttpServer server;
+    private String url;
+
+    // what one download ended with
+    private static class Result implements PdfDownloader.Listener {
+        final CountDownLatch settled = new CountDownLatch(1);
+        final CountDownLatch progressed = new CountDownLatch(1);
+        volatile File file;
+        volatile Exception error;
+        volatile Runnable onProgress;
+
+        @Override
+        public void onProgress(long received, long total) {
+            progressed.countDown();
+            if (onProgress != null) {
+                onProgress.run();
+            }
+        }
+
+        @Override
+        public void onComplete(File file, boolean modified, String etag, String lastModified) {
+            this.file = file;
+            settled.countDown();
+        }
+
+        @Override
+        public void onError(Exception e, int status) {
+            this.error = e;
+            settled.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue("download never settled", settled.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/test.pdf";
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private void serve(HttpHandler handler) {
+        server.createContext("/test.pdf", handler);
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body, int from) throws IOException {
+        exchange.sendResponseHeaders(status, body.length - from);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body, from, body.length - from);
+        }
+    }
+
+    @Test
+    public void downloadsIntoTheTarget() throws Exception {
+        serve(exchange -> send(exchange, 200, BODY, 0));
+        File target = new File(folder.getRoot(), "test.pdf");
+
+        Result result = new Result();
+        new PdfDownloader(url, Collections.emptyMap(), false, target, result).start();
+        result.await();
+
+        assertNull(result.error);
+        assertEquals(target, result.file);
+        assertArrayEquals(BODY, Files.readAllBytes(target.toPath()));
+        assertFalse(new File(target.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void resumesAPartialDownload() throws Exception {
+        final String[] range = new String[1];
+        serve(exchange -> {
+            range[0] = exchange.getRequestHeaders().getFirst("Range");
+            int from = Integer.parseInt(range[0].substring("bytes=".length(), range[0].length() - 1));
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.getResponseHeaders().add("Content-Range",
+                    "bytes " + from + "-" + (BODY.length - 1) + "/" + BODY.length);
+            send(exchange, 206, BODY, from);
+        });
+        File target = new File(folder.getRoot(), "test.pdf");
+        try (FileOutputStream output = new FileOutputStream(target.getPath() + ".tmp")) {
+            output.write(BODY, 0, 1000);
+        }
+        try (FileOutputStream output = new FileOutputStream(target.getPath() + ".tmp.json")) {
+            output.write(("{\"etag\":\"\\\"v1\\\"\",\"length\":" + BODY.length + "}").getBytes("UTF-8"));
+        }
+
+        Result result = new Result();
+        new PdfDownloader(url, Collections.emptyMap(), false, target, result).start();
+        result.await();
+
+        assertNull(result.error);
+        assertEquals("bytes=1000-", range[0]);
+        assertArrayEquals(BODY, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void aPartialDownloadWithoutValidatorsStartsOver() throws Exception {
+        final String[] range = {"unset"};
+        serve(exchange -> {
+            range[0] = exchange.getRequestHeaders().getFirst("Range");
+            send(exchange, 200, BODY, 0);
+        });
+        File target = new File(folder.getRoot(), "test.pdf");
+        try (FileOutputStream output = new FileOutputStream(target.getPath() + ".tmp")) {
+            output.write(new byte[1000]);
+        }
+        try (FileOutputStream output = new FileOutputStream(target.getPath() + ".tmp.json")) {
+            output.write(("{\"length\":" + BODY.length + "}").getBytes("UTF-8"));
+        }
+
+        Result result = new Result();
+        new PdfDownloader(url, Collections.emptyMap(), false, target, result).start();
+        result.await();
+
+        assertNull(result.error);
+        assertNull(range[0]);
+        assertArrayEquals(BODY, Files.readAllBytes(target.toPath()));
+    }
+
+    @Test
+    public void aDownloadCancelledMidwaySettles() throws Exception {
+        final CountDownLatch halfSent = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        serve(exchange -> {
+            // the JDK client would drain a keep-alive response on disconnect
+            exchange.getResponseHeaders().add("Connection", "close");
+            exchange.sendResponseHeaders(200, BODY.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(BODY, 0, BODY.length / 2);
+                output.flush();
+                halfSent.countDown();
+                cancelled.await(10, TimeUnit.SECONDS);
+                output.write(BODY, BODY.length / 2, BODY.length - BODY.length / 2);
+            } catch (IOException | InterruptedException e) {
+                // the client went away
+            }
+        });
+        File target = new File(folder.getRoot(), "test.pdf");
+
+        Result result = new Result();
+        PdfDownloader downloader = new PdfDownloader(url, Collections.emptyMap(), false, target, result);
+        downloader.start();
+        assertTrue(halfSent.await(10, TimeUnit.SECONDS));
+        downloader.cancel();
+        cancelled.countDown();
+        result.await();
+
+        assertNull(result.file);
+        assertEquals("Download cancelled", result.error.getMessage());
+        assertFalse(target.exists());
+    }
+
+    @Test
+    public void aDownloadCancelledAsItFinishesSettles() throws Exception {
+        serve(exchange -> send(exchange, 200, BODY, 0));
+        File target = new File(folder.getRoot(), "test.pdf");
+
+        final Result result = new Result();
+        final PdfDownloader[] downloader = new PdfDownloader[1];
+        final CountDownLatch started = new CountDownLatch(1);
+        // the last progress report comes after the whole body was read
+        result.onProgress = () -> {
+            try {
+                started.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            downloader[0].cancel();
+        };
+        downloader[0] = new PdfDownloader(url, Collections.emptyMap(), false, target, result);
+        downloader[0].start();
+        started.countDown();
+        result.await();
+
+        assertNull(result.file);
+        assertEquals("Download cancelled", result.error.getMessage());
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+
+import com.github.barteksc.pdfviewer.util.Constants;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PdfMemoryManagerTest {
+
+    private PdfView view;
+
+    @Before
+    public void setUp() {
+        view = mock(PdfView.class);
+        Context context = mock(Context.class);
+        when(context.getApplicationContext()).thenReturn(context);
+        when(view.getContext()).thenReturn(context);
+        PdfMemoryManager.register(view, 0);
+    }
+
+    @After
+    public void tearDown() {
+        PdfMemoryManager.unregister(view);
+    }
+
+    @Test
+    public void pressureShrinksTheCacheUntilAMilderTrim() {
+        int parts = Constants.Cache.CACHE_SIZE;
+        assertTrue(parts > 24);
+
+        PdfMemoryManager.trim(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+        assertEquals(24, Constants.Cache.CACHE_SIZE);
+
+        PdfMemoryManager.trim(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+        assertEquals(parts, Constants.Cache.CACHE_SIZE);
+    }
+
+    @Test
+    public void pressureEndsWithTheNextLoad() {
+        int parts = Constants.Cache.CACHE_SIZE;
+
+        PdfMemoryManager.trim(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+        assertEquals(24, Constants.Cache.CACHE_SIZE);
+
+        PdfMemoryManager.register(view, 0);
+        assertEquals(parts, Constants.Cache.CACHE_SIZE);
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class PdfMetricsTest {
+
+    @After
+    public void tearDown() {
+        PdfMetrics.setEnabled(false);
+        PdfMetrics.reset();
+    }
+
+    @Test
+    public void histogramPercentilesAreBucketBounds() {
+        PdfMetrics.Histogram histogram = new PdfMetrics.Histogram();
+        for (int i = 0; i < 50; i++) {
+            histogram.record(0.5);
+        }
+        for (int i = 0; i < 40; i++) {
+            histogram.record(3);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(100);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(11.45, histogram.getMeanMs(), 1e-9);
+        assertEquals(1, histogram.getPercentileMs(50), 0);
+        assertEquals(4, histogram.getPercentileMs(90), 0);
+        // capped at the maximum instead of the bucket's bound, 128
+        assertEquals(100, histogram.getPercentileMs(99), 0);
+        assertEquals(100, histogram.getMaxMs(), 0);
+    }
+
+    @Test
+    public void histogramOverflowBucketReportsMaximum() {
+        PdfMetrics.Histogram histogram = new PdfMetrics.Histogram();
+        histogram.record(10000);
+        assertEquals(10000, histogram.getPercentileMs(50), 0);
+    }
+
+    @Test
+    public void emptyHistogram() {
+        PdfMetrics.Histogram histogram = new PdfMetrics.Histogram();
+        assertEquals(0, histogram.getMeanMs(), 0);
+        assertEquals(0, histogram.getPercentileMs(99), 0);
+    }
+
+    @Test
+    public void disabledMetricsRecordNothing() {
+        PdfMetrics.setEnabled(false);
+        long version = PdfMetrics.getVersion();
+        PdfMetrics.increment("pool.hits");
+        PdfMetrics.record("draw", 3);
+        assertEquals(0, PdfMetrics.beginSection("draw"));
+        assertEquals(0, PdfMetrics.now());
+        assertEquals(version, PdfMetrics.getVersion());
+    }
+
+    @Test
+    public void enabledMetricsChangeTheVersion() {
+        PdfMetrics.setEnabled(true);
+        long version = PdfMetrics.getVersion();
+        PdfMetrics.increment("pool.hits");
+        assertNotEquals(version, PdfMetrics.getVersion());
+
+        // gauges only count as a change when their value does
+        PdfMetrics.setGauge("pool.bytes", 42);
+        version = PdfMetrics.getVersion();
+        PdfMetrics.setGauge("pool.bytes", 42);
+        assertEquals(version, PdfMetrics.getVersion());
+    }
+}
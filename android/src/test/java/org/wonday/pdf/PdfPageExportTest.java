@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PdfPageExportTest {
+
+    @Test
+    public void pixelSizeFollowsDpi() {
+        // US Letter is 612 x 792 points
+        long maxPixels = PdfPageExport.MAX_PIXELS;
+        assertArrayEquals(new int[] {612, 792}, PdfPageExport.getPixelSize(612, 792, 72, maxPixels));
+        assertArrayEquals(new int[] {1275, 1650}, PdfPageExport.getPixelSize(612, 792, 150, maxPixels));
+        assertArrayEquals(new int[] {2550, 3300}, PdfPageExport.getPixelSize(612, 792, 300, maxPixels));
+    }
+
+    @Test
+    public void largePagesAreScaledDownToTheBudget() {
+        // an A0 poster at 300 dpi would be about 140 megapixels
+        int[] size = PdfPageExport.getPixelSize(2384, 3370, 300, PdfPageExport.MAX_PIXELS);
+        assertTrue((long) size[0] * size[1] <= PdfPageExport.MAX_PIXELS);
+        assertEquals(2384f / 3370f, (float) size[0] / size[1], 0.001f);
+    }
+
+    @Test
+    public void workersShareTheBudget() {
+        long maxPixels = PdfPageExport.MAX_PIXELS / PdfPageExport.MAX_CONCURRENCY;
+        int[] size = PdfPageExport.getPixelSize(612, 792, 300, maxPixels);
+        assertTrue((long) size[0] * size[1] <= maxPixels);
+        assertEquals(612f / 792f, (float) size[0] / size[1], 0.001f);
+    }
+
+    @Test
+    public void repeatedPagesAreExportedOnce() {
+        assertArrayEquals(new int[] {3, 1, 2}, PdfPageExport.distinct(new int[] {3, 1, 3, 2, 1}));
+    }
+
+    @Test
+    public void emptyPagesGetOnePixel() {
+        assertArrayEquals(new int[] {1, 1}, PdfPageExport.getPixelSize(0, 0, 150, PdfPageExport.MAX_PIXELS));
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PdfTextIndexTest {
+
+    private static final float UNIT = 65535;
+
+    /**
+     * A page with one line of text per '\n', every character 1000 units wide and every
+     * line 4000 units high; line breaks have no box, like Pdfium's generated characters.
+     */
+    static PdfTextIndex.Page createPage(String text) {
+        char[] boxes = new char[text.length() * 4];
+        int line = 0;
+        int column = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                line++;
+                column = 0;
+                continue;
+            }
+            boxes[i * 4] = (char) (column * 1000);
+            boxes[i * 4 + 1] = (char) (line * 5000);
+            boxes[i * 4 + 2] = (char) (column * 1000 + 900);
+            boxes[i * 4 + 3] = (char) (line * 5000 + 4000);
+            column++;
+        }
+        return new PdfTextIndex.Page(text, boxes);
+    }
+
+    @Test
+    public void findIgnoresCaseAndWhitespaceRuns() {
+        PdfTextIndex.Page page = createPage("Hello  World\nhello\nworld");
+        String query = PdfTextIndex.normalizeQuery(" hello   world ", false);
+        assertEquals("hello world", query);
+
+        List<int[]> matches = page.find(query, false, 10);
+        assertEquals(2, matches.size());
+        assertArrayEquals(new int[] {0, 12}, matches.get(0));
+        assertArrayEquals(new int[] {13, 24}, matches.get(1));
+    }
+
+    @Test
+    public void findCaseSensitive() {
+        PdfTextIndex.Page page = createPage("Hello hello");
+        List<int[]> matches = page.find(PdfTextIndex.normalizeQuery("hello", true), true, 10);
+        assertEquals(1, matches.size());
+        assertArrayEquals(new int[] {6, 11}, matches.get(0));
+    }
+
+    @Test
+    public void findStopsAtLimit() {
+        PdfTextIndex.Page page = createPage("a a a a a");
+        assertEquals(3, page.find("a", false, 3).size());
+        assertTrue(page.find("", false, 3).isEmpty());
+    }
+
+    @Test
+    public void rectsAreMergedPerLine() {
+        PdfTextIndex.Page page = createPage("abc\ndef");
+        float[] rects = page.rects(1, 6);
+        assertEquals(8, rects.length);
+        assertArrayEquals(new float[] {
+                1000 / UNIT, 0, 2900 / UNIT, 4000 / UNIT,
+                0, 5000 / UNIT, 1900 / UNIT, 9000 / UNIT,
+        }, rects, 1e-6f);
+    }
+
+    @Test
+    public void findCharHitsBoxesAndRespectsSlop() {
+        PdfTextIndex.Page page = createPage("abc\ndef");
+        assertEquals(1, page.findChar(1500 / UNIT, 2000 / UNIT, 0));
+        assertEquals(5, page.findChar(1500 / UNIT, 7000 / UNIT, 0));
+        // between two characters of a line, closer to the second one
+        assertEquals(2, page.findChar(1980 / UNIT, 2000 / UNIT, 0.01f));
+        assertEquals(-1, page.findChar(0.9f, 0.9f, 0.01f));
+    }
+
+    @Test
+    public void foldKeepsOffsets() {
+        String text = "\u0130stanbul \u00c9COLE";
+        assertEquals(text.length(), PdfTextIndex.fold(text).length());
+        assertEquals("\u00e9cole", PdfTextIndex.fold("\u00c9COLE"));
+    }
+
+    @Test
+    public void snippetIsOneLine() {
+        PdfTextIndex.Page page = createPage("first line\nsecond   line");
+        assertEquals("line second li", page.snippet(11, 17, 5));
+    }
+}
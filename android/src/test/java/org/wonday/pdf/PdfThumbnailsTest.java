@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PdfThumbnailsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File createFile(String name, int bytes, long lastModified) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(new byte[bytes]);
+        }
+        file.setLastModified(lastModified);
+        return file;
+    }
+
+    @Test
+    public void trimKeepsTheRecentlyUsedFiles() throws IOException {
+        File oldest = createFile("a-1-120.webp", 100, 1000_000);
+        File old = createFile("a-2-120.webp", 100, 2000_000);
+        File recent = createFile("a-3-120.webp", 100, 3000_000);
+        File newest = createFile("b-1-120.webp", 100, 4000_000);
+
+        PdfThumbnails.trimFiles(folder.getRoot(), 250);
+
+        assertTrue(newest.exists());
+        assertTrue(recent.exists());
+        assertFalse(old.exists());
+        assertFalse(oldest.exists());
+    }
+
+    @Test
+    public void trimLeavesFilesBeingWritten() throws IOException {
+        File temp = createFile("a-1-120.webp.tmp", 100, 1000_000);
+        File newest = createFile("a-2-120.webp", 100, 2000_000);
+
+        PdfThumbnails.trimFiles(folder.getRoot(), 50);
+
+        assertTrue(temp.exists());
+        assertFalse(newest.exists());
+    }
+}
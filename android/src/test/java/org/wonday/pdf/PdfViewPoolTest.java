@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import android.view.ViewGroup;
+
+import com.facebook.react.bridge.LifecycleEventListener;
+import com.facebook.react.uimanager.ThemedReactContext;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PdfViewPoolTest {
+
+    private static PdfView createView(ThemedReactContext context) {
+        PdfView view = mock(PdfView.class);
+        when(view.getContext()).thenReturn(context);
+        return view;
+    }
+
+    @After
+    public void tearDown() {
+        PdfViewPool.setMaxViews(0);
+    }
+
+    @Test
+    public void offByDefault() {
+        ThemedReactContext context = mock(ThemedReactContext.class);
+        PdfView view = createView(context);
+
+        assertFalse(PdfViewPool.recycle(view));
+        verify(view, never()).reset();
+        assertNull(PdfViewPool.take(context));
+    }
+
+    @Test
+    public void viewsAreResetAndOnlyReusedByTheirContext() {
+        PdfViewPool.setMaxViews(2);
+        ThemedReactContext context = mock(ThemedReactContext.class);
+        PdfView view = createView(context);
+
+        assertTrue(PdfViewPool.recycle(view));
+        verify(view).reset();
+        assertNull(PdfViewPool.take(mock(ThemedReactContext.class)));
+        assertSame(view, PdfViewPool.take(context));
+        assertNull(PdfViewPool.take(context));
+    }
+
+    @Test
+    public void viewsStillInAParentAreNotHandedOut() {
+        PdfViewPool.setMaxViews(2);
+        ThemedReactContext context = mock(ThemedReactContext.class);
+        PdfView view = createView(context);
+        when(view.getParent()).thenReturn(mock(ViewGroup.class));
+
+        PdfViewPool.recycle(view);
+        assertNull(PdfViewPool.take(context));
+        assertEquals(1, PdfViewPool.size());
+    }
+
+    @Test
+    public void keepsTheMostRecentlyReleased() {
+        PdfViewPool.setMaxViews(2);
+        ThemedReactContext context = mock(ThemedReactContext.class);
+        PdfView first = createView(context);
+        PdfView second = createView(context);
+        PdfView third = createView(context);
+        PdfViewPool.recycle(first);
+        PdfViewPool.recycle(second);
+        PdfViewPool.recycle(third);
+
+        assertEquals(2, PdfViewPool.size());
+        assertSame(third, PdfViewPool.take(context));
+        assertSame(second, PdfViewPool.take(context));
+
+        PdfViewPool.recycle(first);
+        PdfViewPool.recycle(second);
+        PdfViewPool.setMaxViews(1);
+        assertSame(second, PdfViewPool.take(context));
+    }
+
+    @Test
+    public void destroyedHostsTakeTheirViewsWithThem() {
+        PdfViewPool.setMaxViews(4);
+        ThemedReactContext destroyed = mock(ThemedReactContext.class);
+        ThemedReactContext alive = mock(ThemedReactContext.class);
+        PdfViewPool.recycle(createView(destroyed));
+        PdfViewPool.recycle(createView(destroyed));
+        PdfView kept = createView(alive);
+        PdfViewPool.recycle(kept);
+
+        ArgumentCaptor<LifecycleEventListener> listener = ArgumentCaptor.forClass(LifecycleEventListener.class);
+        verify(destroyed).addLifecycleEventListener(listener.capture());
+        listener.getValue().onHostDestroy();
+
+        assertEquals(1, PdfViewPool.size());
+        assertSame(kept, PdfViewPool.take(alive));
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import android.util.SizeF;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.ReactContext;
+import com.facebook.react.uimanager.ThemedReactContext;
+import com.facebook.react.uimanager.UIManagerHelper;
+import com.facebook.react.uimanager.events.EventDispatcher;
+
+import io.legere.pdfiumandroid.PdfiumCore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedConstruction;
+import org.mockito.MockedStatic;
+
+import org.wonday.pdf.events.LoadCompleteEvent;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Feeds prop transactions through PdfManager's setters into a PdfView whose PDFView side is
+ * faked: drawPdf completes the load on the next turn of a hand-driven main looper, and
+ * jumps and zooms are only recorded. Counts the loads and the events React would see.
+ */
+public class PdfViewPropsTest {
+
+    private static final int PAGES = 12;
+
+    private final Queue<Runnable> looper = new ArrayDeque<>();
+    private int posts = 0;
+    private MockedConstruction<PdfiumCore> pdfiumCores;
+    private MockedStatic<UIManagerHelper> uiManagerHelper;
+    private EventDispatcher dispatcher;
+    private PdfManager manager;
+    private PdfView view;
+    private boolean loaded = false;
+    private int currentPage = 0;
+
+    @Before
+    public void setUp() {
+        pdfiumCores = mockConstruction(PdfiumCore.class);
+        dispatcher = mock(EventDispatcher.class);
+        uiManagerHelper = mockStatic(UIManagerHelper.class);
+        uiManagerHelper.when(() -> UIManagerHelper.getEventDispatcherForReactTag(any(ReactContext.class), anyInt()))
+                .thenReturn(dispatcher);
+
+        ThemedReactContext context = mock(ThemedReactContext.class);
+        view = mock(PdfView.class, withSettings().useConstructor(context, null).defaultAnswer(CALLS_REAL_METHODS));
+        doReturn(context).when(view).getContext();
+        doAnswer(invocation -> {
+            posts++;
+            return looper.add(invocation.getArgument(0));
+        }).when(view).post(any(Runnable.class));
+        doAnswer(invocation -> !loaded).when(view).isRecycled();
+        doAnswer(invocation -> currentPage).when(view).getCurrentPage();
+        doReturn(mock(SizeF.class)).when(view).getPageSize(anyInt());
+        // PDFView decodes off the main thread and reports back on it
+        doAnswer(invocation -> {
+            looper.add(() -> {
+                loaded = true;
+                view.loadComplete(PAGES);
+            });
+            return null;
+        }).when(view).drawPdf();
+        doAnswer(invocation -> {
+            currentPage = invocation.getArgument(0);
+            return null;
+        }).when(view).jumpTo(anyInt());
+        doNothing().when(view).zoomTo(anyFloat());
+        doNothing().when(view).loadPages();
+
+        manager = new PdfManager();
+    }
+
+    @After
+    public void tearDown() {
+        uiManagerHelper.close();
+        pdfiumCores.close();
+    }
+
+    private void runLooper() {
+        Runnable runnable;
+        while ((runnable = looper.poll()) != null) {
+            runnable.run();
+        }
+    }
+
+    private void mount() {
+        manager.setPath(view, "/data/test.pdf");
+        manager.setPage(view, 1);
+        manager.setScale(view, 1f);
+        manager.setMinScale(view, 1f);
+        manager.setMaxScale(view, 3f);
+        manager.setHorizontal(view, false);
+        manager.setSpacing(view, 10);
+        manager.setPassword(view, "");
+        manager.setEnablePaging(view, false);
+        manager.setFitPolicy(view, 2);
+        manager.setEnableAntialiasing(view, true);
+        manager.setEnableAnnotationRendering(view, true);
+        manager.setEnableRTL(view, false);
+        manager.setSinglePage(view, false);
+        manager.setPageRange(view, null);
+        manager.onAfterUpdateTransaction(view);
+        runLooper();
+    }
+
+    private void verifyLoads(int loads) {
+        verify(view, times(loads)).drawPdf();
+        verify(dispatcher, times(loads)).dispatchEvent(isA(LoadCompleteEvent.class));
+    }
+
+    @Test
+    public void mountingLoadsOnce() {
+        mount();
+
+        verifyLoads(1);
+    }
+
+    @Test
+    public void pageAndScaleMoveTheLoadedDocument() {
+        mount();
+
+        manager.setPage(view, 5);
+        manager.setScale(view, 2f);
+        manager.onAfterUpdateTransaction(view);
+        runLooper();
+
+        verifyLoads(1);
+        verify(view).jumpTo(4);
+        verify(view).zoomTo(2f);
+    }
+
+    @Test
+    public void unchangedPropsPostNothing() {
+        mount();
+        int postsAfterMount = posts;
+
+        mount();
+
+        assertEquals(postsAfterMount, posts);
+        verifyLoads(1);
+        verify(view, never()).jumpTo(anyInt());
+    }
+
+    @Test
+    public void layoutPropsReloadOncePerTransaction() {
+        mount();
+
+        manager.setHorizontal(view, true);
+        manager.setSpacing(view, 20);
+        manager.setFitPolicy(view, 0);
+        manager.setEnablePaging(view, true);
+        manager.onAfterUpdateTransaction(view);
+        runLooper();
+
+        verifyLoads(2);
+    }
+
+    @Test
+    public void transactionsBeforeTheApplyAreMerged() {
+        mount();
+
+        manager.setSpacing(view, 20);
+        manager.onAfterUpdateTransaction(view);
+        manager.setPage(view, 3);
+        manager.onAfterUpdateTransaction(view);
+        manager.setHorizontal(view, true);
+        manager.onAfterUpdateTransaction(view);
+        runLooper();
+
+        // the reload opens at the new page, there is nothing left to jump to
+        verifyLoads(2);
+        verify(view, never()).jumpTo(anyInt());
+    }
+
+    @Test
+    public void movingThePageRangeReloads() {
+        mount();
+
+        JavaOnlyMap pageRange = new JavaOnlyMap();
+        pageRange.putInt("start", 3);
+        pageRange.putInt("end", 6);
+        manager.setPageRange(view, pageRange);
+        manager.onAfterUpdateTransaction(view);
+        runLooper();
+
+        verifyLoads(2);
+    }
+
+    @Test
+    public void nothingLoadsWithoutAPath() {
+        manager.setPage(view, 2);
+        manager.setHorizontal(view, true);
+        manager.onAfterUpdateTransaction(view);
+        runLooper();
+
+        verifyLoads(0);
+    }
+}
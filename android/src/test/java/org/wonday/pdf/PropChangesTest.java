@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Counts posts, applies and reloads per prop transaction the way PdfManager drives a
+ * PdfView: setters mark their change, onAfterUpdateTransaction schedules, the main
+ * looper runs what was posted.
+ */
+public class PropChangesTest {
+
+    private final Queue<Runnable> looper = new ArrayDeque<>();
+    private final List<Integer> applied = new ArrayList<>();
+    private int posts;
+    private PropChanges changes;
+
+    @Before
+    public void setUp() {
+        changes = new PropChanges(new PropChanges.Target() {
+            @Override
+            public void post(Runnable apply) {
+                posts++;
+                looper.add(apply);
+            }
+
+            @Override
+            public void apply(int changed) {
+                applied.add(changed);
+            }
+        });
+    }
+
+    private void runLooper() {
+        Runnable runnable;
+        while ((runnable = looper.poll()) != null) {
+            runnable.run();
+        }
+    }
+
+    private int reloads() {
+        int reloads = 0;
+        for (int changed : applied) {
+            if (PropChanges.needsReload(changed)) {
+                reloads++;
+            }
+        }
+        return reloads;
+    }
+
+    @Test
+    public void initialTransactionLoadsOnce() {
+        changes.mark(PropChanges.DOCUMENT);
+        changes.mark(PropChanges.DOCUMENT);
+        changes.mark(PropChanges.LAYOUT);
+        changes.mark(PropChanges.LAYOUT);
+        changes.mark(PropChanges.PAGE);
+        changes.mark(PropChanges.SCALE);
+        changes.schedule();
+        runLooper();
+
+        assertEquals(1, posts);
+        assertEquals(1, applied.size());
+        assertEquals(1, reloads());
+        assertEquals(PropChanges.DOCUMENT | PropChanges.LAYOUT | PropChanges.PAGE | PropChanges.SCALE,
+                (int) applied.get(0));
+    }
+
+    @Test
+    public void pageAndScaleDoNotReload() {
+        changes.mark(PropChanges.PAGE);
+        changes.mark(PropChanges.SCALE);
+        changes.schedule();
+        runLooper();
+
+        assertEquals(1, applied.size());
+        assertEquals(0, reloads());
+    }
+
+    @Test
+    public void transactionWithoutChangesPostsNothing() {
+        changes.schedule();
+        runLooper();
+
+        assertEquals(0, posts);
+        assertTrue(applied.isEmpty());
+    }
+
+    @Test
+    public void transactionsBeforeTheApplyRunsAreMerged() {
+        changes.mark(PropChanges.PAGE);
+        changes.schedule();
+        changes.mark(PropChanges.LAYOUT);
+        changes.schedule();
+        runLooper();
+
+        assertEquals(1, posts);
+        assertEquals(1, applied.size());
+        assertEquals(1, reloads());
+    }
+
+    @Test
+    public void everyTransactionAfterAnApplyIsAppliedAgain() {
+        for (int i = 0; i < 3; i++) {
+            changes.mark(PropChanges.PAGE);
+            changes.schedule();
+            runLooper();
+        }
+
+        assertEquals(3, posts);
+        assertEquals(3, applied.size());
+        assertEquals(0, reloads());
+    }
+
+    @Test
+    public void needsReload() {
+        assertTrue(PropChanges.needsReload(PropChanges.DOCUMENT));
+        assertTrue(PropChanges.needsReload(PropChanges.LAYOUT | PropChanges.PAGE));
+        assertTrue(PropChanges.needsReload(PropChanges.RANGE));
+        assertFalse(PropChanges.needsReload(PropChanges.PAGE | PropChanges.SCALE));
+        assertFalse(PropChanges.needsReload(0));
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.legere.pdfiumandroid.PdfDocument;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SharedDocumentTest {
+
+    private static PdfDocument createDocument() {
+        PdfDocument document = mock(PdfDocument.class);
+        when(document.getPageCount()).thenReturn(7);
+        return document;
+    }
+
+    @Test
+    public void lendsTheDocumentUntilClosed() {
+        PdfDocument document = createDocument();
+        SharedDocument shared = new SharedDocument(document);
+
+        assertEquals(7, shared.getPageCount());
+        assertSame(document, shared.borrow());
+        shared.giveBack();
+
+        shared.close();
+        assertNull(shared.borrow());
+    }
+
+    @Test
+    public void closeWaitsForTheBorrowedPage() throws InterruptedException {
+        SharedDocument shared = new SharedDocument(createDocument());
+        shared.borrow();
+
+        CountDownLatch closed = new CountDownLatch(1);
+        Thread main = new Thread(() -> {
+            shared.close();
+            closed.countDown();
+        });
+        main.start();
+
+        assertFalse(closed.await(100, TimeUnit.MILLISECONDS));
+        shared.giveBack();
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        assertNull(shared.borrow());
+    }
+}
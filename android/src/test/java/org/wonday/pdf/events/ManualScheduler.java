@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf.events;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stands in for the main looper: time only moves in advanceTo, which runs everything
+ * posted up to then in time order.
+ */
+class ManualScheduler implements PdfEventEmitter.Scheduler {
+
+    private static class Posted {
+        final Runnable runnable;
+        final long time;
+
+        Posted(Runnable runnable, long time) {
+            this.runnable = runnable;
+            this.time = time;
+        }
+    }
+
+    private final List<Posted> queue = new ArrayList<>();
+    private long now;
+
+    ManualScheduler(long now) {
+        this.now = now;
+    }
+
+    @Override
+    public long uptimeMillis() {
+        return now;
+    }
+
+    @Override
+    public void postAtTime(Runnable runnable, long uptimeMillis) {
+        queue.add(new Posted(runnable, uptimeMillis));
+    }
+
+    @Override
+    public void removeCallbacks(Runnable runnable) {
+        queue.removeIf(posted -> posted.runnable == runnable);
+    }
+
+    int getPendingCount() {
+        return queue.size();
+    }
+
+    void advanceTo(long time) {
+        while (true) {
+            Posted next = null;
+            for (Posted posted : queue) {
+                if (posted.time <= time && (next == null || posted.time < next.time)) {
+                    next = posted;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            queue.remove(next);
+            now = Math.max(now, next.time);
+            next.runnable.run();
+        }
+        now = Math.max(now, time);
+    }
+}
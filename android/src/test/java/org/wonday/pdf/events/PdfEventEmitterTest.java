@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2017-present, Wonday (@wonday.org)
+ * All rights reserved.
+ *
+ * This source code is licensed under the MIT-style license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+
+package org.wonday.pdf.events;
+
+import java.util.List;
+
+import android.view.View;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.uimanager.events.Event;
+import com.facebook.react.uimanager.events.EventDispatcher;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Counts what reaches the EventDispatcher while a gesture floods the emitter.
+ */
+public class PdfEventEmitterTest {
+
+    private static final int SURFACE = 1;
+    private static final int TAG = 7;
+
+    private ManualScheduler scheduler;
+    private EventDispatcher dispatcher;
+    private PdfEventEmitter emitter;
+
+    @Before
+    public void setUp() {
+        scheduler = new ManualScheduler(1000);
+        dispatcher = mock(EventDispatcher.class);
+        emitter = new PdfEventEmitter(mock(View.class), scheduler) {
+            @Override
+            EventDispatcher getDispatcher() {
+                return dispatcher;
+            }
+        };
+    }
+
+    private List<Event> dispatched(int count) {
+        ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        verify(dispatcher, times(count)).dispatchEvent(captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    public void oneEventPerKindAndFrame() {
+        ScaleChangedEvent last = null;
+        for (int i = 0; i < 100; i++) {
+            last = new ScaleChangedEvent(SURFACE, TAG, 1 + i / 100f);
+            emitter.dispatchThrottled(last);
+        }
+        // nothing is sent from inside the callback that produced it
+        verify(dispatcher, never()).dispatchEvent(any());
+
+        scheduler.advanceTo(1000);
+        assertSame(last, dispatched(1).get(0));
+    }
+
+    @Test
+    public void latestValueArrivesAfterTheInterval() {
+        emitter.dispatchThrottled(new PageScrolledEvent(SURFACE, TAG, 1, 0.1f));
+        scheduler.advanceTo(1000);
+
+        PageScrolledEvent last = null;
+        for (int i = 0; i < 10; i++) {
+            scheduler.advanceTo(1001 + i);
+            last = new PageScrolledEvent(SURFACE, TAG, 1, 0.2f + i / 100f);
+            emitter.dispatchThrottled(last);
+        }
+        verify(dispatcher, times(1)).dispatchEvent(any());
+
+        scheduler.advanceTo(1000 + PdfEventEmitter.DEFAULT_INTERVAL_MS);
+        assertSame(last, dispatched(2).get(1));
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void kindsAreThrottledIndependently() {
+        emitter.dispatchThrottled(new PageChangedEvent(SURFACE, TAG, 2, 10));
+        emitter.dispatchThrottled(new ScaleChangedEvent(SURFACE, TAG, 2));
+        emitter.dispatchThrottled(new PageScrolledEvent(SURFACE, TAG, 2, 0.5f));
+        emitter.dispatchThrottled(new ScaleChangedEvent(SURFACE, TAG, 3));
+        scheduler.advanceTo(1000);
+
+        dispatched(3);
+    }
+
+    @Test
+    public void oneOffEventsAreNotThrottled() {
+        emitter.dispatch(new LoadCompleteEvent(SURFACE, TAG, 10, 100, 200));
+        emitter.dispatch(new PageSingleTapEvent(SURFACE, TAG, 1, 5, 5));
+
+        dispatched(2);
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void cancelDropsPendingEvents() {
+        emitter.dispatchThrottled(new ScaleChangedEvent(SURFACE, TAG, 2));
+        emitter.cancel();
+        scheduler.advanceTo(2000);
+
+        verify(dispatcher, never()).dispatchEvent(any());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void zeroIntervalSendsEveryFlush() {
+        emitter.setIntervalMs(0);
+        for (int i = 0; i < 5; i++) {
+            emitter.dispatchThrottled(new PageScrolledEvent(SURFACE, TAG, 1, i / 10f));
+            scheduler.advanceTo(1000 + i);
+        }
+
+        dispatched(5);
+    }
+
+    @Test
+    public void payloadsCarryTheEventName() {
+        try (MockedStatic<Arguments> arguments = mockStatic(Arguments.class)) {
+            arguments.when(Arguments::createMap).thenAnswer(invocation -> new JavaOnlyMap());
+
+            WritableMap scale = new ScaleChangedEvent(SURFACE, TAG, 2.5f).getEventData();
+            assertEquals("scaleChanged", scale.getString("event"));
+            assertEquals(2.5, scale.getDouble("scale"), 0);
+
+            WritableMap page = new PageChangedEvent(SURFACE, TAG, 3, 10).getEventData();
+            assertEquals("pageChanged", page.getString("event"));
+            assertEquals(3, page.getInt("page"));
+            assertEquals(10, page.getInt("numberOfPages"));
+
+            WritableMap selected = new TextSelectedEvent(SURFACE, TAG, 4, "word").getEventData();
+            assertEquals("textSelected", selected.getString("event"));
+            assertEquals("word", selected.getString("text"));
+        }
+    }
+
+    @Test
+    public void onlyContinuousEventsCoalesce() {
+        assertTrue(new ScaleChangedEvent(SURFACE, TAG, 1).canCoalesce());
+        assertFalse(new LoadCompleteEvent(SURFACE, TAG, 1, 1, 1).canCoalesce());
+    }
+}
@@ -7,8 +7,21 @@
  import codegenNativeComponent from 'react-native/Libraries/Utilities/codegenNativeComponent';
  import codegenNativeCommands from 'react-native/Libraries/Utilities/codegenNativeCommands';
  
+ // Android sends structured events tagged by `event`; iOS and Windows send `message`
+ // as a pipe-delimited string.
  type ChangeEvent = $ReadOnly<{|
    message: ?string,
+   event: ?string,
+   page: ?Int32,
+   numberOfPages: ?Int32,
+   width: ?Double,
+   height: ?Double,
+   x: ?Double,
+   y: ?Double,
+   scale: ?Double,
+   positionOffset: ?Double,
+   uri: ?string,
+   text: ?string,
  |}>;
  
  export type NativeProps = $ReadOnly<{|
@@ -31,6 +44,16 @@
    fitPolicy: ?Int32,
    spacing: ?Int32,
    password: ?string,
+   retainOnDetach: ?Int32,
+   eventThrottleInterval?: WithDefault<Int32, 16>,
+   prefetchPagesAhead: ?Int32,
+   prefetchPagesBehind: ?Int32,
+   prefetchResolution: ?Float,
+   cacheSizeMB: ?Int32,
+   previewQuality: ?string,
+   highlights: ?$ReadOnlyArray<$ReadOnly<{|page: Int32, rects: $ReadOnlyArray<$ReadOnly<{|left: Float, top: Float, right: Float, bottom: Float|}>>|}>>,
+   enableTextSelection: ?boolean,
+   pageRange: ?$ReadOnly<{|start?: Int32, end?: Int32|}>,
    onChange: ?BubblingEventHandler<ChangeEvent>,
    singlePage: ?boolean,
  |}>;
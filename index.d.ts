@@ -11,7 +11,10 @@ import * as ReactNative from 'react-native';
 
 export type TableContent = {
     children: TableContent[],
-    mNativePtr: number,
+    /**
+     * Not sent on Android.
+     */
+    mNativePtr?: number,
     pageIdx: number,
     title: string,
 };
@@ -39,6 +42,8 @@ export type TextSelectionChangeEvent = {
     | {
         type: 'selectionChanged';
         text: string;
+        /** Android only, the page the selection is on. */
+        page?: number;
       };
 };
 
@@ -64,7 +69,8 @@ export interface PdfProps {
     enableAnnotationRendering?: boolean,
     enableDoubleTapZoom?: boolean;
     /**
-     * Only works on iOS. Defaults to `true`.
+     * Works on iOS and Android. On Android a long press selects the word under the finger and
+     * dragging extends the selection within that page; a tap clears it. Defaults to `true`.
      */
     enableTextSelection?: boolean;
     /**
@@ -77,13 +83,73 @@ export interface PdfProps {
     trustAllCerts?: boolean,
     singlePage?: boolean,
     transformFile?: boolean,
+    /**
+     * Only works on Android. Milliseconds the last rendered frame is kept after the view is
+     * detached (e.g. covered by another screen), so coming back shows it immediately while the
+     * document reloads. Defaults to `0` (off).
+     */
+    retainOnDetach?: number,
+    /**
+     * Only works on Android. Minimum milliseconds between two `onPageChanged`, `onScaleChanged`
+     * or `onPageScrolled` events; only the latest value is delivered. Defaults to `16` (one frame).
+     */
+    eventThrottleInterval?: number,
+    /**
+     * Only works on Android. Number of pages rendered at low resolution ahead of the scroll
+     * direction, shown until the page is rendered sharply. Defaults to `0` (off).
+     */
+    prefetchPagesAhead?: number,
+    /**
+     * Only works on Android. Like `prefetchPagesAhead`, for pages behind the scroll direction.
+     * Defaults to `0` (off).
+     */
+    prefetchPagesBehind?: number,
+    /**
+     * Only works on Android. Resolution of prefetched pages as a fraction of their on-screen
+     * size, `0` to `1`. Defaults to `0.3`.
+     */
+    prefetchResolution?: number,
+    /**
+     * Only works on Android. Draws a cheap low resolution pass of newly visible pages while
+     * scrolling or pinching, replaced by the sharp rendering once motion stops. `'low'` is 15%
+     * scale in RGB_565 without annotations, `'medium'` 25% in RGB_565, `'high'` 50% in full color.
+     * Also sets the quality of prefetched pages. Defaults to `'none'`.
+     */
+    previewQuality?: 'none' | 'low' | 'medium' | 'high',
+    /**
+     * Only works on Android. Megabytes of rendered pages kept in memory. The budget is shared by
+     * all `Pdf` views (the largest request wins) and is trimmed when the system runs low on
+     * memory. Defaults to `0` (32 MB).
+     */
+    cacheSizeMB?: number,
+    /**
+     * Only works on Android. Rectangles drawn over pages, e.g. the hits of `PdfManager.search`.
+     * Pages are 1-based, rectangles are fractions of the page with the origin at its top left.
+     */
+    highlights?: {page: number, rects: {left: number, top: number, right: number, bottom: number}[]}[],
+    /**
+     * Only works on Android. Opens only these pages of the document, 1-based and inclusive; `start` or
+     * `end` can be left out. Only the window is laid out and rendered, so a chapter of a very large
+     * document opens as fast as a small one. `page`, `onPageChanged`, `onPageScrolled` and
+     * `onPageSingleTap` keep using document page numbers and `numberOfPages` stays the document's.
+     * Changing the range moves the window to other pages by loading the document again, which costs
+     * about as much as opening a new one.
+     */
+    pageRange?: {start?: number, end?: number},
     onLoadProgress?: (percent: number,) => void,
+    /**
+     * `tableContents` is not sent on Android, use `PdfManager.getTableOfContents` to load the outline on demand.
+     */
     onLoadComplete?: (numberOfPages: number, path: string, size: {height: number, width: number}, tableContents?: TableContent[]) => void,
     onPageChanged?: (page: number, numberOfPages: number) => void,
     onError?: (error: PdfError) => void,
     onPageSingleTap?: (page: number, x: number, y: number) => void,
     onScaleChanged?: (scale: number) => void,
     onPressLink?: (url: string) => void,
+    /**
+     * Only works on Android. `positionOffset` is the scroll position in the document, from 0 to 1.
+     */
+    onPageScrolled?: (page: number, positionOffset: number) => void,
     onTextSelectionChange?: (event: TextSelectionChangeEvent) => void,
 }
 
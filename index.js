@@ -21,6 +21,7 @@ import PdfViewNativeComponent, {
     Commands as PdfViewCommands,
   } from './fabric/RNPDFPdfNativeComponent';
 import ReactNativeBlobUtil from 'react-native-blob-util'
+import PdfManager from './PdfManager';
 const SHA1 = require('crypto-js/sha1');
 
 let PdfView;
@@ -67,13 +68,34 @@ export default class Pdf extends Component {
         trustAllCerts: PropTypes.bool,
         singlePage: PropTypes.bool,
         transformFile: PropTypes.bool,
+        retainOnDetach: PropTypes.number,
+        eventThrottleInterval: PropTypes.number,
+        prefetchPagesAhead: PropTypes.number,
+        prefetchPagesBehind: PropTypes.number,
+        prefetchResolution: PropTypes.number,
+        previewQuality: PropTypes.oneOf(['none', 'low', 'medium', 'high']),
+        cacheSizeMB: PropTypes.number,
+        highlights: PropTypes.arrayOf(PropTypes.shape({
+            page: PropTypes.number.isRequired,
+            rects: PropTypes.arrayOf(PropTypes.shape({
+                left: PropTypes.number,
+                top: PropTypes.number,
+                right: PropTypes.number,
+                bottom: PropTypes.number,
+            })).isRequired,
+        })),
         onLoadComplete: PropTypes.func,
         onPageChanged: PropTypes.func,
         onError: PropTypes.func,
         onPageSingleTap: PropTypes.func,
         onScaleChanged: PropTypes.func,
         onPressLink: PropTypes.func,
+        onPageScrolled: PropTypes.func,
         enableTextSelection: PropTypes.bool,
+        pageRange: PropTypes.shape({
+            start: PropTypes.number,
+            end: PropTypes.number,
+        }),
         onTextSelectionChange: PropTypes.func,
 
         // Props that are not available in the earlier react native version, added to prevent crashed on android
@@ -107,6 +129,13 @@ export default class Pdf extends Component {
         usePDFKit: true,
         singlePage: false,
         transformFile: false,
+        retainOnDetach: 0,
+        eventThrottleInterval: 16,
+        prefetchPagesAhead: 0,
+        prefetchPagesBehind: 0,
+        prefetchResolution: 0.3,
+        previewQuality: 'none',
+        cacheSizeMB: 0,
         onLoadProgress: (percent) => {
         },
         onLoadComplete: (numberOfPages, path) => {
@@ -137,6 +166,7 @@ export default class Pdf extends Component {
 
         this.lastRNBFTask = null;
         this.lastViewFile = null;
+        this.lastViewFileIsNative = false;
     }
 
     componentDidUpdate(prevProps) {
@@ -190,17 +220,33 @@ export default class Pdf extends Component {
 
     _cleanupViewFile = () => {
         if (this.lastViewFile) {
-            this._unlinkFile(this.lastViewFile);
+            if (this.lastViewFileIsNative) {
+                PdfManager.releaseViewFile(this.lastViewFile);
+            } else {
+                this._unlinkFile(this.lastViewFile);
+            }
             this.lastViewFile = null;
         }
     };
 
     _transformToViewFile = async (preTransformedPath) => {
+        if (Platform.OS === 'android') {
+            // streamed in Java when the app registered a native transformer
+            const nativeViewFile = await PdfManager.transformToViewFile(preTransformedPath);
+            if (nativeViewFile) {
+                this.lastViewFile = nativeViewFile;
+                this.lastViewFileIsNative = true;
+                this.lastPreTransformedPath = preTransformedPath;
+                return nativeViewFile;
+            }
+        }
+
         const viewFile = preTransformedPath + '.view';
         this._unlinkFile(viewFile);
         const base64 = await ReactNativeBlobUtil.fs.readFileWithTransform(preTransformedPath, 'base64');
         await ReactNativeBlobUtil.fs.writeFile(viewFile, base64, 'base64');
         this.lastViewFile = viewFile;
+        this.lastViewFileIsNative = false;
         this.lastPreTransformedPath = preTransformedPath;
         return viewFile;
     };
@@ -217,7 +263,9 @@ export default class Pdf extends Component {
         const filename = source.cacheFileName || SHA1(uri) + '.pdf';
         const cacheFile = ReactNativeBlobUtil.fs.dirs.CacheDir + '/' + filename;
 
-        if (source.cache) {
+        if (source.cache && this._canUseNativeCache(source)) {
+            this._downloadFileNatively(source, cacheFile);
+        } else if (source.cache) {
             ReactNativeBlobUtil.fs
                 .stat(cacheFile)
                 .then(async stats => {
@@ -334,6 +382,11 @@ export default class Pdf extends Component {
             this.lastRNBFTask = null;
         }
 
+        if (this._canDownloadNatively(source)) {
+            await this._downloadFileNatively(source, cacheFile);
+            return;
+        }
+
         const tempCacheFile = cacheFile + '.tmp';
         // Await the unlink: a fire-and-forget call here lets ReactNativeBlobUtil's
         // open(path) race with the in-flight delete on Android 14 + New Architecture and
@@ -410,6 +463,66 @@ export default class Pdf extends Component {
 
     };
 
+    // Plain GET downloads, stored as they arrive, are all the native downloader makes.
+    _isPlainDownload = (source) => {
+        return Platform.OS === 'android'
+            && !this.props.transformFile
+            && (!source.method || source.method.toUpperCase() === 'GET')
+            && !source.body;
+    };
+
+    // Plain GET downloads on Android go through the native range downloader, which writes
+    // to cacheFile + '.tmp' and resumes an interrupted download instead of restarting it.
+    _canDownloadNatively = (source) => {
+        return this._isPlainDownload(source)
+            && PdfManager.canDownloadFile();
+    };
+
+    // Cached network sources on Android are served by the native cache, which revalidates
+    // expired files with the server and keeps the cache directory under its quota.
+    _canUseNativeCache = (source) => {
+        return this._isPlainDownload(source)
+            && !!(source.uri && source.uri.match(/^https?:\/\//))
+            && PdfManager.canUseCache();
+    };
+
+    _downloadFileNatively = async (source, cacheFile) => {
+        const onProgress = (received, total) => {
+            if (total > 0) {
+                this.props.onLoadProgress && this.props.onLoadProgress(received / total);
+                if (this._mounted) {
+                    this.setState({progress: received / total});
+                }
+            }
+        };
+        const task = source.cache && PdfManager.canUseCache()
+            ? PdfManager.fetchCached(source.uri, cacheFile, source.headers, source.expiration, onProgress, this.props.trustAllCerts)
+            : PdfManager.downloadFile(source.uri, cacheFile, source.headers, onProgress, this.props.trustAllCerts);
+        const cancel = task.cancel;
+        task.cancel = (callback) => {
+            cancel();
+            callback && callback();
+        };
+        this.lastRNBFTask = task;
+
+        try {
+            await task;
+        } catch (error) {
+            // a cancelled or superseded download is not an error for this view
+            if (this.lastRNBFTask === task) {
+                this.lastRNBFTask = null;
+                this._onError(error);
+            }
+            return;
+        }
+        if (this.lastRNBFTask === task) {
+            this.lastRNBFTask = null;
+            if (this._mounted) {
+                this.setState({path: cacheFile, isDownloaded: true, progress: 1});
+            }
+        }
+    };
+
     _createDownloadError = (uri, responseInfo) => {
         const error = new Error("DownloadFailed:" + uri);
         if (responseInfo) {
@@ -458,6 +571,11 @@ export default class Pdf extends Component {
             return;
         }
 
+        if (event.nativeEvent.event) {
+            this._onNativeEvent(event.nativeEvent);
+            return;
+        }
+
         let message = event.nativeEvent.message.split('|');
         //__DEV__ && console.log("onChange: " + message);
         if (message.length > 0) {
@@ -506,6 +624,47 @@ export default class Pdf extends Component {
 
     };
 
+    // Structured events from Android, see android/src/main/java/org/wonday/pdf/events
+    _onNativeEvent = (nativeEvent) => {
+        switch (nativeEvent.event) {
+            case 'loadComplete':
+                // no tableContents here, see PdfManager.getTableOfContents
+                this.props.onLoadComplete && this.props.onLoadComplete(nativeEvent.numberOfPages, this.state.path, {
+                    width: nativeEvent.width,
+                    height: nativeEvent.height,
+                });
+                break;
+            case 'pageChanged':
+                this.props.onPageChanged && this.props.onPageChanged(nativeEvent.page, nativeEvent.numberOfPages);
+                break;
+            case 'error':
+                this._onError(new Error(nativeEvent.message));
+                break;
+            case 'pageSingleTap':
+                this.props.onPageSingleTap && this.props.onPageSingleTap(nativeEvent.page, nativeEvent.x, nativeEvent.y);
+                break;
+            case 'scaleChanged':
+                this.props.onScaleChanged && this.props.onScaleChanged(nativeEvent.scale);
+                break;
+            case 'linkPressed':
+                this.props.onPressLink && this.props.onPressLink(nativeEvent.uri);
+                break;
+            case 'pageScrolled':
+                this.props.onPageScrolled && this.props.onPageScrolled(nativeEvent.page, nativeEvent.positionOffset);
+                break;
+            case 'textSelected':
+                this.props.onTextSelectionChange && this.props.onTextSelectionChange({
+                    nativeEvent: { type: 'selectionChanged', text: nativeEvent.text, page: nativeEvent.page }
+                });
+                break;
+            case 'textSelectionCleared':
+                this.props.onTextSelectionChange && this.props.onTextSelectionChange({
+                    nativeEvent: { type: 'selectionCleared' }
+                });
+                break;
+        }
+    };
+
     _onError = (error) => {
 
         this.props.onError && this.props.onError(error);